@@ -0,0 +1,91 @@
+package benchmarks;
+
+import model.ArcKernel;
+import model.RobotFleet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение скалярного и векторного ядра {@link ArcKernel}: само ядро на случайных состояниях
+ * и команде и полный шаг флота с этим ядром (команды контроллера, ядро и публикация позиций).
+ * Цели лежат далеко за полем, поэтому роботы не доезжают до них за время замера.
+ * Форк запускается с модулем {@code jdk.incubator.vector}; без него вариант vector совпадает со scalar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class ArcKernelBenchmark {
+    private static final double duration = 10;
+
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    @Param({"1024", "65536"})
+    public int robots;
+
+    private ArcKernel arcKernel;
+    private RobotFleet fleet;
+    private double[] xs;
+    private double[] ys;
+    private double[] directions;
+    private double[] velocities;
+    private double[] angularVelocities;
+    private double[] outXs;
+    private double[] outYs;
+    private double[] outDirections;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        arcKernel = "vector".equals(kernel) ? ArcKernel.vector() : ArcKernel.scalar();
+
+        Random random = new Random(42);
+        fleet = new RobotFleet(robots);
+        xs = new double[robots];
+        ys = new double[robots];
+        directions = new double[robots];
+        velocities = new double[robots];
+        angularVelocities = new double[robots];
+        for (int i = 0; i < robots; i++) {
+            xs[i] = random.nextDouble() * 1000;
+            ys[i] = random.nextDouble() * 1000;
+            directions[i] = random.nextDouble() * 2 * Math.PI;
+            velocities[i] = RobotFleet.maxVelocity;
+            angularVelocities[i] = random.nextBoolean() ? RobotFleet.maxAngularVelocity : -RobotFleet.maxAngularVelocity;
+            fleet.addRobot(xs[i], ys[i], directions[i], 1_000_000 + random.nextInt(1000), random.nextInt(1000));
+        }
+        fleet.setKernel(arcKernel);
+
+        outXs = new double[robots];
+        outYs = new double[robots];
+        outDirections = new double[robots];
+    }
+
+    @Benchmark
+    public double[] advance() {
+        arcKernel.advance(xs, ys, directions, velocities, angularVelocities, 0, robots, duration,
+                outXs, outYs, outDirections);
+        return outXs;
+    }
+
+    @Benchmark
+    public RobotFleet fleetStep() {
+        fleet.step(duration);
+        return fleet;
+    }
+}
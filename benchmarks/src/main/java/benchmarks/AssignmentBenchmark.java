@@ -0,0 +1,78 @@
+package benchmarks;
+
+import model.AssignmentEngine;
+import model.RobotFleet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры распределения целей между роботами {@link AssignmentEngine}: полное распределение
+ * и перераспределение после перемещения нескольких целей. Роботы и цели равномерно разбросаны
+ * по квадратному полю; число целей равно числу роботов.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AssignmentBenchmark {
+    private static final int fieldSize = 2000;
+    private static final int changedTargets = 10;
+
+    @Param({"200", "1000", "5000"})
+    public int robots;
+
+    private RobotFleet fleet;
+    private AssignmentEngine engine;
+    private int[] targetXs;
+    private int[] targetYs;
+    private int[] changed;
+    private Random random;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        random = new Random(42);
+        fleet = new RobotFleet(robots);
+        targetXs = new int[robots];
+        targetYs = new int[robots];
+        for (int i = 0; i < robots; i++) {
+            fleet.addRobot(random.nextInt(fieldSize), random.nextInt(fieldSize), 0, 0, 0);
+            targetXs[i] = random.nextInt(fieldSize);
+            targetYs[i] = random.nextInt(fieldSize);
+        }
+
+        engine = new AssignmentEngine();
+        engine.assign(fleet, targetXs, targetYs);
+        changed = new int[changedTargets];
+    }
+
+    @Benchmark
+    public int[] assign() {
+        return engine.assign(fleet, targetXs, targetYs);
+    }
+
+    @Benchmark
+    public int[] reassign() {
+        for (int k = 0; k < changedTargets; k++) {
+            int target = random.nextInt(robots);
+            changed[k] = target;
+            targetXs[target] = random.nextInt(fieldSize);
+            targetYs[target] = random.nextInt(fieldSize);
+        }
+        return engine.reassign(fleet, targetXs, targetYs, changed, changedTargets);
+    }
+}
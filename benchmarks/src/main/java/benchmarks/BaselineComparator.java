@@ -0,0 +1,161 @@
+package benchmarks;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Класс BaselineComparator сравнивает результаты JMH (формат {@code -rf json}) с сохранённым базовым прогоном.
+ * Для режима пропускной способности хуже меньшее значение, для остальных режимов - большее.
+ * Если хотя бы один замер ухудшился больше допустимого порога, программа завершается с кодом 1.
+ * <p>
+ * Сравнение строгое: с кодом 1 программа завершается и тогда, когда базовый прогон пуст,
+ * когда в прогоне есть замер, которого нет в базовом ({@code NEW}), или когда замера базового
+ * прогона нет в текущем ({@code MISSING}). Иначе пустой или устаревший базовый прогон молча
+ * пропускал бы любые замедления. Флаг {@code --allow-new} разрешает новые замеры (и пустой
+ * базовый прогон), флаг {@code --allow-missing} - прогон только части замеров.
+ * <p>
+ * Использование:
+ * <pre>
+ * java -cp benchmarks.jar benchmarks.BaselineComparator [--allow-new] [--allow-missing] results.json baseline/baseline.json [порог в процентах]
+ * java -cp benchmarks.jar benchmarks.BaselineComparator --update results.json baseline/baseline.json
+ * </pre>
+ */
+public class BaselineComparator {
+    private static final double defaultThresholdPercent = 10;
+
+    public static void main(String[] args) throws IOException, ParseException {
+        if (args.length >= 3 && "--update".equals(args[0])) {
+            Files.copy(Path.of(args[1]), Path.of(args[2]), StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline updated: " + args[2]);
+            return;
+        }
+
+        boolean allowNew = false;
+        boolean allowMissing = false;
+        int first = 0;
+        for (; first < args.length && args[first].startsWith("--"); first++) {
+            if ("--allow-new".equals(args[first])) {
+                allowNew = true;
+            } else if ("--allow-missing".equals(args[first])) {
+                allowMissing = true;
+            } else {
+                usage();
+            }
+        }
+        if (args.length - first < 2) {
+            usage();
+        }
+
+        double threshold = args.length - first > 2 ? Double.parseDouble(args[first + 2]) : defaultThresholdPercent;
+        Map<String, Result> current = load(args[first]);
+        Map<String, Result> baseline = load(args[first + 1]);
+
+        int regressions = 0;
+        int added = 0;
+        int missing = 0;
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result result = entry.getValue();
+            Result base = baseline.get(entry.getKey());
+            if (base == null) {
+                added++;
+                System.out.printf("NEW        %-80s %12.3f %s%n", entry.getKey(), result.score, result.unit);
+                continue;
+            }
+
+            double change = (result.score - base.score) / base.score * 100;
+            double worse = result.higherIsBetter() ? -change : change;
+            String status = worse > threshold ? "REGRESSION" : "ok";
+            if (worse > threshold) {
+                regressions++;
+            }
+
+            System.out.printf("%-10s %-80s %12.3f -> %12.3f %s (%+.1f%%)%n",
+                    status, entry.getKey(), base.score, result.score, result.unit, change);
+        }
+
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                missing++;
+                System.out.printf("MISSING    %s%n", key);
+            }
+        }
+
+        boolean failed = false;
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+            failed = true;
+        }
+        if (baseline.isEmpty() && !allowNew) {
+            System.out.println("Baseline is empty: record one with --update or pass --allow-new");
+            failed = true;
+        } else if (added > 0 && !allowNew) {
+            System.out.printf("%d benchmark(s) are not in the baseline: record it again with --update or pass --allow-new%n", added);
+            failed = true;
+        }
+        if (missing > 0 && !allowMissing) {
+            System.out.printf("%d baseline benchmark(s) are missing from the run: pass --allow-missing for partial runs%n", missing);
+            failed = true;
+        }
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: BaselineComparator [--allow-new] [--allow-missing] <results.json> <baseline.json> [thresholdPercent]");
+        System.err.println("       BaselineComparator --update <results.json> <baseline.json>");
+        System.exit(2);
+    }
+
+    private static Map<String, Result> load(String path) throws IOException, ParseException {
+        Map<String, Result> results = new TreeMap<>();
+
+        try (FileReader reader = new FileReader(path)) {
+            JSONArray array = (JSONArray) new JSONParser().parse(reader);
+            for (Object item : array) {
+                JSONObject benchmark = (JSONObject) item;
+                JSONObject metric = (JSONObject) benchmark.get("primaryMetric");
+
+                StringBuilder key = new StringBuilder((String) benchmark.get("benchmark"));
+                JSONObject params = (JSONObject) benchmark.get("params");
+                if (params != null) {
+                    new TreeMap<Object, Object>(params).forEach((name, value) ->
+                            key.append(' ').append(name).append('=').append(value));
+                }
+
+                results.put(key.toString(), new Result(
+                        (String) benchmark.get("mode"),
+                        ((Number) metric.get("score")).doubleValue(),
+                        (String) metric.get("scoreUnit")));
+            }
+        }
+
+        return results;
+    }
+
+    private static class Result {
+        final String mode;
+        final double score;
+        final String unit;
+
+        Result(String mode, double score, String unit) {
+            this.mode = mode;
+            this.score = score;
+            this.unit = unit;
+        }
+
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+}
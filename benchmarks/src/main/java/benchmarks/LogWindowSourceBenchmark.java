@@ -0,0 +1,51 @@
+package benchmarks;
+
+import log.LogChangeListener;
+import log.LogLevel;
+import log.LogWindowSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры {@link LogWindowSource#append(LogLevel, String)} без слушателей, с одним и со многими слушателями.
+ * Слушатели только отмечают вызов, чтобы замер отражал стоимость самого оповещения.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogWindowSourceBenchmark {
+    @Param({"0", "1", "32"})
+    public int listeners;
+
+    private LogWindowSource source;
+    private int notifications;
+
+    @Setup
+    public void setUp() {
+        source = new LogWindowSource(100);
+        for (int i = 0; i < listeners; i++) {
+            LogChangeListener listener = () -> notifications++;
+            source.registerListener(listener);
+        }
+    }
+
+    @Benchmark
+    public int append() {
+        source.append(LogLevel.Debug, "Новая строка");
+        return notifications;
+    }
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import model.ModelRobot;
+import model.MotionController;
+import model.MotionIntegrator;
+import model.RobotFleet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры одного шага {@link ModelRobot#moveRobot(double, double, double)}.
+ * Цель для прямолинейного движения лежит далеко впереди робота, поэтому он не доезжает до неё
+ * за время замера. Закон управления по умолчанию даёт нулевую угловую скорость только при цели
+ * точно под прямым углом к направлению и уже на следующем шаге снова поворачивает, поэтому
+ * прямолинейный случай едет с регулятором, который держит курс: так замеряется ветвь движения
+ * по прямой. Цель для поворота лежит внутри круга разворота, и робот кружит вокруг неё
+ * с регулятором по умолчанию.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelRobotBenchmark {
+    private static final double duration = 10;
+
+    /**
+     * Регулятор, который едет с наибольшей скоростью, не поворачивая.
+     */
+    private static final MotionController holdHeading = (state, targetX, targetY) -> {
+        state[MotionIntegrator.VELOCITY] = RobotFleet.maxVelocity;
+        state[MotionIntegrator.ANGULAR_VELOCITY] = 0;
+    };
+
+    @Param({"straight", "turning"})
+    public String motion;
+
+    private ModelRobot robot;
+    private double targetX;
+    private double targetY;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        RobotFleet fleet = new RobotFleet(1);
+        fleet.addRobot(100, 100, 0, 0, 0);
+        robot = new ModelRobot(fleet, 0);
+
+        if ("straight".equals(motion)) {
+            fleet.setController(holdHeading);
+            targetX = 1e9;
+            targetY = 100;
+        } else {
+            targetX = 110;
+            targetY = 150;
+        }
+    }
+
+    @Benchmark
+    public double moveRobot() {
+        robot.moveRobot(targetX, targetY, duration);
+        return robot.getRobotX();
+    }
+}
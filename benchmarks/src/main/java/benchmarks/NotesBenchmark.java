@@ -0,0 +1,88 @@
+package benchmarks;
+
+import notes.ConcurrentNotes;
+import notes.Notes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры {@link Notes} и {@link ConcurrentNotes} при одновременной записи и чтении.
+ * Каждая группа запускает двух писателей и по одному читателю для get и getSegment
+ * на общей коллекции, как это происходит с журналом при отрисовке окна протокола.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Group)
+public class NotesBenchmark {
+    private static final int size = 1000;
+    private static final int segment = 50;
+
+    private Notes<Object> notes;
+    private ConcurrentNotes<Object> concurrentNotes;
+    private final Object entry = new Object();
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        notes = new Notes<>(size);
+        concurrentNotes = new ConcurrentNotes<>(size);
+        for (int i = 0; i < size; i++) {
+            notes.add(entry);
+            concurrentNotes.add(entry);
+        }
+    }
+
+    @Benchmark
+    @Group("notes")
+    @GroupThreads(2)
+    public boolean notesAdd() {
+        return notes.add(entry);
+    }
+
+    @Benchmark
+    @Group("notes")
+    public Object notesGet() {
+        return notes.get(size / 2);
+    }
+
+    @Benchmark
+    @Group("notes")
+    public List<Object> notesGetSegment() {
+        return notes.getSegment(size - segment, size - 1);
+    }
+
+    @Benchmark
+    @Group("concurrentNotes")
+    @GroupThreads(2)
+    public boolean concurrentNotesAdd() {
+        return concurrentNotes.add(entry);
+    }
+
+    @Benchmark
+    @Group("concurrentNotes")
+    public Object concurrentNotesGet() {
+        return concurrentNotes.get(size / 2);
+    }
+
+    @Benchmark
+    @Group("concurrentNotes")
+    public List<Object> concurrentNotesGetSegment() {
+        return concurrentNotes.getSegment(size - segment, size - 1);
+    }
+}
@@ -0,0 +1,129 @@
+package benchmarks;
+
+import model.ObstacleMap;
+import model.RangeSensor;
+import model.RobotFleet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры пропускной способности дальномеров {@link RangeSensor} в лучах в секунду: опрос всех
+ * роботов флота за такт и отдельные лучи. Препятствия занимают пятую часть ячеек квадратной
+ * карты; роботы стоят в свободных ячейках со случайным направлением.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SensorBenchmark {
+    private static final int robots = 4096;
+    private static final int rays = 32;
+    private static final int cells = 200;
+    private static final double cellSize = 10;
+    private static final int sampledRays = 1024;
+
+    @Param({"100", "400"})
+    public double maxRange;
+
+    private RangeSensor sensor;
+    private RobotFleet fleet;
+    private double[] ranges;
+    private double[] rayX;
+    private double[] rayY;
+    private double[] rayAngle;
+
+    @Setup(Level.Trial)
+    public void checkAxisRays() {
+        // лучи вдоль осей из точек на гранях ячеек: на пустой карте луч упирается в край карты
+        int size = 30;
+        double edge = 20;
+        ObstacleMap map = new ObstacleMap(size, size, edge);
+        RangeSensor sensor = new RangeSensor(map, 4, 2 * Math.PI, 2 * size * edge);
+        double[] scan = new double[4];
+        for (int k = 1; k < size; k++) {
+            double x = k * edge;
+            double y = (size - k) * edge;
+            checkRange(sensor.castRay(x, y, 0), size * edge - x);
+            checkRange(sensor.castRay(x, y, Math.PI), x);
+            checkRange(sensor.castRay(x + edge / 4, y, 0), size * edge - x - edge / 4);
+
+            RobotFleet fleet = new RobotFleet(1);
+            fleet.addRobot(x, y, 0, 0, 0);
+            for (double range : sensor.scan(fleet, scan)) {
+                if (!(range >= 0 && range <= 2 * size * edge)) {
+                    throw new IllegalStateException("RangeSensor returned " + range);
+                }
+            }
+        }
+    }
+
+    private static void checkRange(double range, double expected) {
+        if (!(Math.abs(range - expected) < 1e-6)) {
+            throw new IllegalStateException("RangeSensor returned " + range + " instead of " + expected);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random random = new Random(42);
+        ObstacleMap map = new ObstacleMap(cells, cells, cellSize);
+        for (int row = 0; row < cells; row++) {
+            for (int column = 0; column < cells; column++) {
+                map.setBlocked(column, row, random.nextInt(5) == 0);
+            }
+        }
+
+        fleet = new RobotFleet(robots);
+        while (fleet.size() < robots) {
+            double x = random.nextDouble() * cells * cellSize;
+            double y = random.nextDouble() * cells * cellSize;
+            if (!map.isBlocked(map.cellAt(x, y))) {
+                fleet.addRobot(x, y, random.nextDouble() * 2 * Math.PI, 0, 0);
+            }
+        }
+
+        rayX = new double[sampledRays];
+        rayY = new double[sampledRays];
+        rayAngle = new double[sampledRays];
+        for (int k = 0; k < sampledRays; k++) {
+            rayX[k] = fleet.getX(k);
+            rayY[k] = fleet.getY(k);
+            rayAngle[k] = random.nextDouble() * 2 * Math.PI;
+        }
+
+        sensor = new RangeSensor(map, rays, 2 * Math.PI, maxRange);
+        ranges = new double[robots * rays];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(robots * rays)
+    public double[] scanFleet() {
+        return sensor.scan(fleet, ranges);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(sampledRays)
+    public double castRays() {
+        double sum = 0;
+        for (int k = 0; k < sampledRays; k++) {
+            sum += sensor.castRay(rayX[k], rayY[k], rayAngle[k]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,88 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import serialization.Saveable;
+import serialization.StateHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры сохранения и загрузки состояния окон через {@link StateHandler}.
+ * Состояния повторяют то, что сохраняют окна приложения: имя, размеры, положение и признак свёрнутости.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StateHandlerBenchmark {
+    private File file;
+    private StateHandler handler;
+    private List<Saveable> windows;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("state", ".json");
+        handler = new StateHandler(file.getPath());
+        windows = List.of(
+                window("LogWindow", 300, 800, 10, 10, false),
+                window("GameWindow", 400, 400, 320, 10, false),
+                window("CoordWindow", 400, 120, 320, 420, true));
+        handler.save(windows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public void save() {
+        handler.save(windows);
+    }
+
+    @Benchmark
+    public Map<String, serialization.State> loadAllData() {
+        return handler.loadAllData();
+    }
+
+    private static Saveable window(String name, int width, int height, double x, double y, boolean hidden) {
+        return new Saveable() {
+            @Override
+            public serialization.State getState() {
+                serialization.State state = new serialization.State();
+                state.setProperty("name", name);
+                state.setProperty("height", height);
+                state.setProperty("width", width);
+                state.setProperty("location_x", x);
+                state.setProperty("location_y", y);
+                state.setProperty("is_hidden", hidden);
+                return state;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public void loadState(serialization.State state) {
+            }
+        };
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import gui.TileRasterizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Замеры времени кадра плиточной растеризации флота {@link TileRasterizer} в зависимости
+ * от числа роботов, радиуса кружка и числа потоков пула. Роботы равномерно разбросаны
+ * по полю размером с окно 1280x800.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class TileRasterizerBenchmark {
+    private static final int width = 1280;
+    private static final int height = 800;
+
+    @Param({"10000", "100000"})
+    public int robots;
+
+    @Param({"0", "3"})
+    public int radius;
+
+    @Param({"1", "4"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private TileRasterizer rasterizer;
+    private int[] xs;
+    private int[] ys;
+    private Rectangle area;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        xs = new int[robots];
+        ys = new int[robots];
+        for (int i = 0; i < robots; i++) {
+            xs[i] = random.nextInt(width);
+            ys[i] = random.nextInt(height);
+        }
+
+        pool = new ForkJoinPool(threads);
+        rasterizer = new TileRasterizer(pool, TileRasterizer.DEFAULT_TILE_SIZE);
+        area = new Rectangle(0, 0, width, height);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public BufferedImage rasterize() {
+        return rasterizer.rasterize(xs, ys, robots, radius, 0xFF00FF, area, width, height);
+    }
+}
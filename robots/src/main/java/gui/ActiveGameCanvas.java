@@ -0,0 +1,285 @@
+package gui;
+
+import model.ModelChangeChannel;
+import model.ModelChangeListener;
+import model.ModelRobot;
+
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javax.swing.UIManager;
+
+/**
+ * Класс ActiveGameCanvas - холст активной отрисовки игрового поля. В отличие от
+ * {@link GameVisualizer}, кадры рисует не поток событий Swing по запросам перерисовки,
+ * а отдельный поток отрисовки в буфер {@link BufferStrategy} с заданным ограничением
+ * частоты кадров, поэтому частота не зависит от того, как Swing объединяет и откладывает
+ * запросы. Поле рисует та же {@link GameScene}.
+ * <p>
+ * Поток запускается, когда холст становится отображаемым, и останавливается, когда он
+ * удаляется из окна. Сроки кадров отсчитываются от общего начала с шагом периода кадра,
+ * а не от окончания предыдущего кадра, поэтому частота не уплывает; после показа кадра
+ * вызывается {@link Toolkit#sync()}, чтобы кадр сразу ушёл на экран. Если поток отстал
+ * больше чем на период, сроки сдвигаются к текущему времени вместо догона. Если на поле
+ * ничего не изменилось и холст не требует перерисовки, кадр пропускается. О перемещении
+ * роботов флота холст узнаёт из канала оповещений модели, на который подписан, пока отображается.
+ * <p>
+ * Холст AWT не получает {@code updateUI()}, поэтому о смене оформления он узнаёт, подписываясь
+ * на свойство {@code lookAndFeel} класса {@link UIManager}, пока отображается: фон берётся
+ * из нового оформления, а спрайты и статический слой сцены рисуются заново.
+ */
+public class ActiveGameCanvas extends Canvas {
+    /**
+     * Ограничение частоты кадров по умолчанию.
+     */
+    public static final int DEFAULT_MAX_FPS = 60;
+
+    private static final long idleParkNanos = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ModelRobot modelRobot;
+    private final GameScene scene;
+    private final ModelChangeListener fleetListener = this::onModelChanged;
+    private final PropertyChangeListener lookAndFeelListener = this::onLookAndFeelChanged;
+    private final FrameStatistics statistics = new FrameStatistics();
+
+    private volatile int maxFps;
+    private volatile boolean exposed = true;
+    private volatile boolean sceneInvalid;
+    private volatile boolean fleetMoved;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * Создает холст с ограничением частоты кадров по умолчанию.
+     *
+     * @param modelRobot модель робота
+     */
+    public ActiveGameCanvas(ModelRobot modelRobot) {
+        this(modelRobot, DEFAULT_MAX_FPS);
+    }
+
+    /**
+     * Создает холст.
+     *
+     * @param modelRobot модель робота
+     * @param maxFps     ограничение частоты кадров или 0 без ограничения
+     */
+    public ActiveGameCanvas(ModelRobot modelRobot, int maxFps) {
+        this.modelRobot = modelRobot;
+        this.scene = new GameScene(modelRobot, new RobotSpriteCache());
+        setMaxFps(maxFps);
+        setIgnoreRepaint(true);
+        updateBackground();
+    }
+
+    /**
+     * Возвращает статистику кадров.
+     *
+     * @return статистика кадров
+     */
+    public FrameStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Возвращает ограничение частоты кадров.
+     *
+     * @return кадров в секунду или 0 без ограничения
+     */
+    public int getMaxFps() {
+        return maxFps;
+    }
+
+    /**
+     * Устанавливает ограничение частоты кадров; применяется со следующего кадра.
+     *
+     * @param maxFps кадров в секунду или 0 без ограничения
+     * @throws IllegalArgumentException если ограничение отрицательно
+     */
+    public void setMaxFps(int maxFps) {
+        if (maxFps < 0) {
+            throw new IllegalArgumentException("maxFps must not be negative");
+        }
+        this.maxFps = maxFps;
+    }
+
+    /**
+     * Сбрасывает статический слой и спрайты сцены (например, после изменения карты препятствий
+     * или смены оформления); сцена будет нарисована заново в потоке отрисовки.
+     */
+    public void invalidateScene() {
+        sceneInvalid = true;
+    }
+
+    /**
+     * Возвращает окно просмотра поля.
+     *
+     * @return окно просмотра
+     */
+    public Viewport getViewport() {
+        return scene.getViewport();
+    }
+
+    /**
+     * Задаёт окно просмотра поля; применяется со следующего кадра.
+     *
+     * @param viewport окно просмотра
+     */
+    public void setViewport(Viewport viewport) {
+        scene.setViewport(viewport);
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        start();
+    }
+
+    @Override
+    public void removeNotify() {
+        stop();
+        super.removeNotify();
+    }
+
+    /**
+     * Запрос перерисовки от системы (например, окно открылось) выполняется потоком отрисовки.
+     */
+    @Override
+    public void paint(Graphics g) {
+        exposed = true;
+    }
+
+    @Override
+    public void update(Graphics g) {
+        paint(g);
+    }
+
+    private synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        createBufferStrategy(2);
+        modelRobot.getChanges().subscribe(fleetListener, Runnable::run);
+        UIManager.addPropertyChangeListener(lookAndFeelListener);
+        running = true;
+        exposed = true;
+        thread = new Thread(this::run, "render loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private synchronized void stop() {
+        running = false;
+        modelRobot.getChanges().unsubscribe(fleetListener);
+        UIManager.removePropertyChangeListener(lookAndFeelListener);
+
+        if (thread == null) {
+            return;
+        }
+
+        LockSupport.unpark(thread);
+        if (thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        thread = null;
+    }
+
+    private void run() {
+        BufferStrategy strategy = getBufferStrategy();
+        long nextFrame = System.nanoTime();
+        int width = -1;
+        int height = -1;
+
+        while (running) {
+            if (sceneInvalid) {
+                sceneInvalid = false;
+                scene.getSprites().invalidate();
+                scene.invalidateStaticLayer();
+                exposed = true;
+            }
+
+            boolean resized = getWidth() != width || getHeight() != height;
+            width = getWidth();
+            height = getHeight();
+
+            boolean moved = fleetMoved;
+            fleetMoved = false;
+            boolean changed = scene.update(moved) != null;
+            if (changed || resized || exposed || strategy.contentsLost()) {
+                exposed = false;
+                long start = System.nanoTime();
+                render(strategy, width, height);
+                statistics.recordFrame(start, System.nanoTime());
+            } else {
+                statistics.recordSkippedFrame();
+            }
+
+            int fps = maxFps;
+            if (fps <= 0) {
+                if (!changed) {
+                    LockSupport.parkNanos(this, idleParkNanos);
+                }
+                nextFrame = System.nanoTime();
+                continue;
+            }
+
+            long period = TimeUnit.SECONDS.toNanos(1) / fps;
+            long now = System.nanoTime();
+            nextFrame += period;
+            if (nextFrame < now - period) {
+                nextFrame = now;
+            }
+            long sleep = nextFrame - now;
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+        }
+    }
+
+    private void onModelChanged(int changes) {
+        if ((changes & ModelChangeChannel.ROBOT_MOVED) != 0) {
+            fleetMoved = true;
+        }
+    }
+
+    private void onLookAndFeelChanged(PropertyChangeEvent event) {
+        if ("lookAndFeel".equals(event.getPropertyName())) {
+            updateBackground();
+            invalidateScene();
+        }
+    }
+
+    private void updateBackground() {
+        Color background = UIManager.getColor("Panel.background");
+        setBackground(background != null ? background : Color.WHITE);
+    }
+
+    private void render(BufferStrategy strategy, int width, int height) {
+        do {
+            do {
+                Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    g.setColor(getBackground());
+                    g.fillRect(0, 0, width, height);
+                    scene.paint(g, width, height);
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+}
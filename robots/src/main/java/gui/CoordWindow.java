@@ -3,23 +3,25 @@ package gui;
 import java.awt.BorderLayout;
 import java.awt.TextArea;
 import java.beans.PropertyVetoException;
-import java.util.Observable;
-import java.util.Observer;
 import javax.swing.JInternalFrame;
 import javax.swing.JPanel;
 
+import model.ModelChangeChannel;
+import model.ModelChangeListener;
 import model.ModelRobot;
+import model.RobotState;
 import serialization.Saveable;
 import serialization.State;
 
 /**
  * Класс CoordWindow представляет внутреннее окно, отображающее координаты робота.
- * Реализует интерфейсы Saveable и Observer.
+ * Реализует интерфейсы Saveable и ModelChangeListener.
  */
-public class CoordWindow extends JInternalFrame implements Saveable, Observer
+public class CoordWindow extends JInternalFrame implements Saveable, ModelChangeListener
 {
     private final TextArea textArea;
     private final ModelRobot modelRobot;
+    private final RobotState robotState = new RobotState();
 
     /**
      * Конструктор класса CoordWindow.
@@ -40,19 +42,12 @@ public class CoordWindow extends JInternalFrame implements Saveable, Observer
 
     /**
      * Метод обновления окна при изменении состояния модели.
-     * @param o Наблюдаемый объект (модель робота)
-     * @param arg Аргумент (состояние модели)
+     * @param changes Набор флагов изменений модели
      */
     @Override
-    public void update(Observable o, Object arg) {
-        if (o == null) {
-            return;
-        }
-
-        if (modelRobot.equals(o)) {
-            if (ModelRobot.key_robot_pos_changed.equals(arg)) {
-                onRobotPositionChanged();
-            }
+    public void onModelChanged(int changes) {
+        if ((changes & ModelChangeChannel.ROBOT_MOVED) != 0) {
+            onRobotPositionChanged();
         }
     }
 
@@ -61,10 +56,10 @@ public class CoordWindow extends JInternalFrame implements Saveable, Observer
      * Обновляет текстовую область с новыми координатами робота.
      */
     private void onRobotPositionChanged() {
-
-        String coords = "x: " + ((int)modelRobot.getRobotX()) +
-                ", y: " + ((int)modelRobot.getRobotY() +
-                ", direction: " + ((int) (modelRobot.getDirection() * 180 / Math.PI)));
+        RobotState state = modelRobot.readState(robotState);
+        String coords = "x: " + ((int)state.getX()) +
+                ", y: " + ((int)state.getY() +
+                ", direction: " + ((int) (state.getDirection() * 180 / Math.PI)));
         textArea.setText(coords);
     }
     @Override
@@ -0,0 +1,114 @@
+package gui;
+
+/**
+ * Класс FrameStatistics собирает статистику кадров цикла отрисовки: число нарисованных
+ * и пропущенных кадров, среднее и наибольшее время отрисовки и частоту кадров по последним
+ * {@link #WINDOW} кадрам. Записывает статистику поток отрисовки, читать её можно из любого потока.
+ */
+public class FrameStatistics {
+    /**
+     * Число последних кадров, по которым считаются время и частота.
+     */
+    public static final int WINDOW = 120;
+
+    private final long[] renderNanos = new long[WINDOW];
+    private final long[] intervalNanos = new long[WINDOW];
+    private int next;
+    private int filled;
+    private long lastStart = -1;
+    private long frames;
+    private long skippedFrames;
+
+    /**
+     * Учитывает нарисованный кадр.
+     *
+     * @param startNanos время начала отрисовки по {@link System#nanoTime()}
+     * @param endNanos   время окончания отрисовки по {@link System#nanoTime()}
+     */
+    public synchronized void recordFrame(long startNanos, long endNanos) {
+        renderNanos[next] = endNanos - startNanos;
+        intervalNanos[next] = lastStart < 0 ? 0 : startNanos - lastStart;
+        lastStart = startNanos;
+        next = (next + 1) % WINDOW;
+        filled = Math.min(filled + 1, WINDOW);
+        frames++;
+    }
+
+    /**
+     * Учитывает кадр, пропущенный потому, что на поле ничего не изменилось.
+     */
+    public synchronized void recordSkippedFrame() {
+        skippedFrames++;
+    }
+
+    /**
+     * Возвращает число нарисованных кадров.
+     *
+     * @return число кадров
+     */
+    public synchronized long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Возвращает число пропущенных кадров.
+     *
+     * @return число пропущенных кадров
+     */
+    public synchronized long getSkippedFrames() {
+        return skippedFrames;
+    }
+
+    /**
+     * Возвращает среднее время отрисовки кадра по последним кадрам.
+     *
+     * @return время в миллисекундах или 0, если кадров не было
+     */
+    public synchronized double getAverageFrameMillis() {
+        if (filled == 0) {
+            return 0;
+        }
+
+        long total = 0;
+        for (int k = 0; k < filled; k++) {
+            total += renderNanos[k];
+        }
+        return total / 1e6 / filled;
+    }
+
+    /**
+     * Возвращает наибольшее время отрисовки кадра по последним кадрам.
+     *
+     * @return время в миллисекундах
+     */
+    public synchronized double getMaxFrameMillis() {
+        long max = 0;
+        for (int k = 0; k < filled; k++) {
+            max = Math.max(max, renderNanos[k]);
+        }
+        return max / 1e6;
+    }
+
+    /**
+     * Возвращает частоту нарисованных кадров по промежуткам между последними кадрами.
+     *
+     * @return кадров в секунду или 0, если кадров меньше двух
+     */
+    public synchronized double getFramesPerSecond() {
+        long total = 0;
+        int intervals = 0;
+        for (int k = 0; k < filled; k++) {
+            if (intervalNanos[k] > 0) {
+                total += intervalNanos[k];
+                intervals++;
+            }
+        }
+        return total == 0 ? 0 : intervals * 1e9 / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("frames: %d, skipped: %d, fps: %.1f, frame time avg: %.3f ms, max: %.3f ms",
+                getFrames(), getSkippedFrames(), getFramesPerSecond(), getAverageFrameMillis(), getMaxFrameMillis());
+    }
+}
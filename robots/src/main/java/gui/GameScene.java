@@ -0,0 +1,387 @@
+package gui;
+
+import model.ModelRobot;
+import model.ObstacleMap;
+import model.RobotFleet;
+import model.RobotState;
+import model.RoutePlanner;
+import model.SpatialGrid;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Класс GameScene рисует игровое поле - препятствия, роботов флота и цель робота модели - через
+ * окно просмотра {@link Viewport} и сообщает, какая область экрана изменилась с прошлого снимка.
+ * Им пользуются и панель Swing {@link GameVisualizer}, и холст активной отрисовки {@link ActiveGameCanvas}.
+ * <p>
+ * Препятствия карты не меняются от кадра к кадру, поэтому они один раз рисуются в отдельное
+ * изображение (статический слой), которое при перерисовке копируется через преобразование окна
+ * в пределах области отсечения.
+ * <p>
+ * Рисуются только роботы, попавшие в область отсечения: их индексы выбираются запросом
+ * к пространственному индексу флота {@link RobotFleet#getRobotGrid()}, поэтому время кадра
+ * зависит от числа видимых роботов, а не от размера флота. Если индекс у флота не построен,
+ * роботы перебираются подряд. Подробность изображения зависит от масштаба и числа видимых роботов:
+ * при масштабе от {@link #spriteZoom}, если видимых роботов меньше {@link #rasterRobots}, роботы
+ * рисуются заранее повёрнутыми спрайтами из {@link RobotSpriteCache}; иначе они параллельно
+ * растеризуются кружками цвета корпуса в массив пикселей изображения {@link TileRasterizer},
+ * которое копируется на экран одним вызовом {@code drawImage}. При малом масштабе кружки
+ * сжимаются до пикселя, а непрозрачность пикселя растёт с числом роботов в нём.
+ * Робот модели и его цель рисуются по последнему прочитанному снимку поверх остальных.
+ * <p>
+ * Сцена не потокобезопасна: ею пользуется один поток отрисовки. Окно просмотра можно
+ * задавать из любого потока; оно применяется при следующем {@link #update(boolean)}.
+ */
+final class GameScene {
+    /**
+     * Наименьший масштаб, при котором роботы рисуются спрайтами.
+     */
+    static final double spriteZoom = 0.35;
+
+    /**
+     * Число видимых роботов, начиная с которого они растеризуются и при крупном масштабе.
+     */
+    static final int rasterRobots = 2048;
+
+    /**
+     * Признак изменения всей видимой области.
+     */
+    static final Rectangle ALL = new Rectangle(0, 0, Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+    /**
+     * Половина стороны квадрата, в который помещается цель, с запасом на контур.
+     */
+    private static final int targetExtent = 4;
+
+    /**
+     * Радиус кружка растеризуемого робота в единицах мира.
+     */
+    private static final double rasterRadius = 8;
+
+    private final ModelRobot modelRobot;
+    private final RobotState robotState = new RobotState();
+    private final RobotSpriteCache sprites;
+    private final TileRasterizer rasterizer = new TileRasterizer();
+
+    private volatile Viewport viewport = Viewport.IDENTITY;
+    private Viewport current = Viewport.IDENTITY;
+
+    private int robotX;
+    private int robotY;
+    private int robotAngle;
+    private int targetX;
+    private int targetY;
+
+    private int[] visible = new int[64];
+    private int visibleCount;
+    private final IntConsumer collector = this::addVisible;
+
+    private BufferedImage staticLayer;
+    private ObstacleMap staticLayerMap;
+
+    private int[] screenX = new int[64];
+    private int[] screenY = new int[64];
+
+    /**
+     * Создает сцену и читает первый снимок модели.
+     *
+     * @param modelRobot модель робота
+     * @param sprites    кэш спрайтов робота
+     */
+    GameScene(ModelRobot modelRobot, RobotSpriteCache sprites) {
+        this.modelRobot = modelRobot;
+        this.sprites = sprites;
+        readSnapshot();
+    }
+
+    RobotSpriteCache getSprites() {
+        return sprites;
+    }
+
+    Viewport getViewport() {
+        return viewport;
+    }
+
+    /**
+     * Задаёт окно просмотра; оно применяется при следующем {@link #update(boolean)}.
+     *
+     * @param viewport окно просмотра
+     */
+    void setViewport(Viewport viewport) {
+        this.viewport = viewport;
+    }
+
+    /**
+     * Сбрасывает статический слой с препятствиями; он будет нарисован заново при следующей отрисовке.
+     */
+    void invalidateStaticLayer() {
+        staticLayer = null;
+    }
+
+    /**
+     * Читает новый снимок модели.
+     *
+     * @param fleetMoved true, если с прошлого снимка могли переместиться роботы флота
+     * @return {@link #ALL}, если изменилось окно просмотра или переместились другие роботы флота;
+     * объединение прежних и новых прямоугольников робота модели и цели на экране, если их
+     * изображение изменилось; иначе null
+     */
+    Rectangle update(boolean fleetMoved) {
+        Viewport view = viewport;
+        boolean viewChanged = view != current;
+        current = view;
+
+        int oldRobotX = robotX;
+        int oldRobotY = robotY;
+        int oldRobotAngle = robotAngle;
+        int oldTargetX = targetX;
+        int oldTargetY = targetY;
+        readSnapshot();
+
+        if (viewChanged || fleetMoved && modelRobot.getFleet().size() > 1) {
+            return ALL;
+        }
+
+        Rectangle dirty = null;
+        if (robotX != oldRobotX || robotY != oldRobotY || robotAngle != oldRobotAngle) {
+            int extent = robotExtent(view);
+            dirty = union(dirty, bounds(oldRobotX, oldRobotY, extent));
+            dirty = union(dirty, bounds(robotX, robotY, extent));
+        }
+        if (targetX != oldTargetX || targetY != oldTargetY) {
+            dirty = union(dirty, bounds(oldTargetX, oldTargetY, targetExtent));
+            dirty = union(dirty, bounds(targetX, targetY, targetExtent));
+        }
+        return dirty;
+    }
+
+    /**
+     * Рисует поле по последнему прочитанному снимку в пределах области отсечения. Фон не заливается.
+     *
+     * @param g      графика
+     * @param width  ширина поверхности
+     * @param height высота поверхности
+     */
+    void paint(Graphics2D g, int width, int height) {
+        Rectangle area = new Rectangle(0, 0, width, height);
+        Rectangle clip = g.getClipBounds();
+        if (clip != null) {
+            area = area.intersection(clip);
+        }
+        if (area.isEmpty()) {
+            return;
+        }
+
+        Viewport view = current;
+        RoutePlanner planner = modelRobot.getRoutePlanner();
+        if (planner != null) {
+            g.drawImage(staticLayer(planner.getMap()), view.getTransform(), null);
+        }
+
+        int extent = robotExtent(view);
+        collectVisible(modelRobot.getFleet(), view, area, extent);
+        if (view.getZoom() >= spriteZoom && visibleCount < rasterRobots) {
+            paintSprites(g, view);
+        } else {
+            paintRaster(g, view, area, width, height);
+        }
+
+        paintModelRobot(g, view);
+        drawTarget(g, targetX, targetY);
+    }
+
+    private void readSnapshot() {
+        RobotState state = modelRobot.readState(robotState);
+        Viewport view = current;
+        robotX = round(view.toScreenX(state.getX()));
+        robotY = round(view.toScreenY(state.getY()));
+        robotAngle = sprites.angleIndex(state.getDirection());
+        targetX = round(view.toScreenX(state.getTargetX()));
+        targetY = round(view.toScreenY(state.getTargetY()));
+    }
+
+    /**
+     * Возвращает половину стороны квадрата на экране, в который помещается робот при заданном окне.
+     */
+    private static int robotExtent(Viewport view) {
+        int raster = rasterRadius(view) + 1;
+        if (view.getZoom() < spriteZoom) {
+            return raster;
+        }
+        return Math.max(raster, (int) Math.ceil(RobotSpriteCache.EXTENT * view.getZoom()) + 1);
+    }
+
+    private static int rasterRadius(Viewport view) {
+        return (int) (rasterRadius * view.getZoom());
+    }
+
+    /**
+     * Выбирает индексы роботов, изображение которых может задеть область экрана.
+     */
+    private void collectVisible(RobotFleet fleet, Viewport view, Rectangle area, int extent) {
+        double minX = view.toWorldX(area.x - extent);
+        double minY = view.toWorldY(area.y - extent);
+        double maxX = view.toWorldX(area.x + area.width + extent);
+        double maxY = view.toWorldY(area.y + area.height + extent);
+
+        visibleCount = 0;
+        SpatialGrid grid = fleet.getRobotGrid();
+        if (grid != null) {
+            grid.forEachInRange(minX, minY, maxX, maxY, collector);
+            return;
+        }
+
+        for (int i = 0; i < fleet.size(); i++) {
+            double x = fleet.getX(i);
+            double y = fleet.getY(i);
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                addVisible(i);
+            }
+        }
+    }
+
+    private void addVisible(int index) {
+        if (visibleCount == visible.length) {
+            visible = Arrays.copyOf(visible, 2 * visible.length);
+        }
+        visible[visibleCount++] = index;
+    }
+
+    private void paintSprites(Graphics2D g, Viewport view) {
+        RobotFleet fleet = modelRobot.getFleet();
+        int self = modelRobot.getIndex();
+        Graphics2D world = (Graphics2D) g.create();
+        try {
+            world.transform(view.getTransform());
+            for (int k = 0; k < visibleCount; k++) {
+                int i = visible[k];
+                if (i != self) {
+                    sprites.draw(world, round(fleet.getX(i)), round(fleet.getY(i)), fleet.getDirection(i));
+                }
+            }
+        } finally {
+            world.dispose();
+        }
+    }
+
+    /**
+     * Переводит позиции видимых роботов, кроме робота модели, в координаты экрана
+     * и растеризует их в изображение, которое копируется на экран в пределах области.
+     */
+    private void paintRaster(Graphics2D g, Viewport view, Rectangle area, int width, int height) {
+        if (screenX.length < visibleCount) {
+            screenX = new int[visible.length];
+            screenY = new int[visible.length];
+        }
+
+        RobotFleet fleet = modelRobot.getFleet();
+        int self = modelRobot.getIndex();
+        int count = 0;
+        for (int k = 0; k < visibleCount; k++) {
+            int i = visible[k];
+            if (i != self) {
+                screenX[count] = round(view.toScreenX(fleet.getX(i)));
+                screenY[count] = round(view.toScreenY(fleet.getY(i)));
+                count++;
+            }
+        }
+
+        BufferedImage raster = rasterizer.rasterize(screenX, screenY, count, rasterRadius(view),
+                sprites.getBodyColor().getRGB(), area, width, height);
+        int right = area.x + area.width;
+        int bottom = area.y + area.height;
+        g.drawImage(raster, area.x, area.y, right, bottom, area.x, area.y, right, bottom, null);
+    }
+
+    private void paintModelRobot(Graphics2D g, Viewport view) {
+        if (view.getZoom() < spriteZoom) {
+            int radius = Math.max(1, rasterRadius(view));
+            g.setColor(sprites.getBodyColor());
+            fillOval(g, robotX, robotY, 2 * radius + 1, 2 * radius + 1);
+            return;
+        }
+
+        double direction = 2 * Math.PI * robotAngle / sprites.getAngles();
+        if (view.getZoom() == 1) {
+            sprites.draw(g, robotX, robotY, direction);
+            return;
+        }
+
+        Graphics2D scaled = (Graphics2D) g.create();
+        try {
+            scaled.translate(robotX, robotY);
+            scaled.scale(view.getZoom(), view.getZoom());
+            sprites.draw(scaled, 0, 0, direction);
+        } finally {
+            scaled.dispose();
+        }
+    }
+
+    private static int round(double value) {
+        return (int) Math.floor(value + 0.5);
+    }
+
+    private static Rectangle bounds(int centerX, int centerY, int extent) {
+        return new Rectangle(centerX - extent, centerY - extent, 2 * extent + 1, 2 * extent + 1);
+    }
+
+    private static Rectangle union(Rectangle dirty, Rectangle bounds) {
+        return dirty == null ? bounds : dirty.union(bounds);
+    }
+
+    /**
+     * Возвращает статический слой с препятствиями карты, рисуя его при первом обращении
+     * и после смены карты. Слой рисуется в координатах мира.
+     */
+    private BufferedImage staticLayer(ObstacleMap map) {
+        if (staticLayer == null || staticLayerMap != map) {
+            int width = (int) Math.ceil(map.getColumns() * map.getCellSize());
+            int height = (int) Math.ceil(map.getRows() * map.getCellSize());
+            BufferedImage image = new BufferedImage(Math.max(1, width), Math.max(1, height),
+                    BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = image.createGraphics();
+            try {
+                drawObstacles(g, map);
+            } finally {
+                g.dispose();
+            }
+            staticLayer = image;
+            staticLayerMap = map;
+        }
+        return staticLayer;
+    }
+
+    private static void fillOval(Graphics g, int centerX, int centerY, int diam1, int diam2) {
+        g.fillOval(centerX - diam1 / 2, centerY - diam2 / 2, diam1, diam2);
+    }
+
+    private static void drawOval(Graphics g, int centerX, int centerY, int diam1, int diam2) {
+        g.drawOval(centerX - diam1 / 2, centerY - diam2 / 2, diam1, diam2);
+    }
+
+    private static void drawObstacles(Graphics2D g, ObstacleMap map) {
+        g.setColor(Color.GRAY);
+        int columns = map.getColumns();
+        double cellSize = map.getCellSize();
+        for (int cell = 0; cell < map.getCellCount(); cell++) {
+            if (map.isBlocked(cell)) {
+                int x = (int) ((cell % columns) * cellSize);
+                int y = (int) ((cell / columns) * cellSize);
+                g.fillRect(x, y, (int) Math.ceil(cellSize), (int) Math.ceil(cellSize));
+            }
+        }
+    }
+
+    private static void drawTarget(Graphics2D g, int x, int y) {
+        g.setColor(Color.GREEN);
+        fillOval(g, x, y, 5, 5);
+        g.setColor(Color.BLACK);
+        drawOval(g, x, y, 5, 5);
+    }
+}
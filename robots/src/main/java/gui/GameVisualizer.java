@@ -1,121 +1,128 @@
 package gui;
 
+import model.ModelChangeChannel;
+import model.ModelChangeListener;
 import model.ModelRobot;
 
-import java.awt.Color;
-import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
-import java.awt.geom.AffineTransform;
-import java.util.Observable;
-import java.util.Observer;
+import java.awt.Rectangle;
 import javax.swing.JPanel;
 
 /**
  * Класс GameVisualizer представляет панель JPanel, которая отображает визуальное представление робота.
  * Он наблюдает за классом ModelRobot, и обновляет отображение.
+ * <p>
+ * Перерисовка инкрементальная: при оповещении о модели визуализатор читает снимок робота
+ * и цели и, если они изменились на экране, перерисовывает только объединение прямоугольников
+ * их прежнего и нового положения. Пока робот стоит, оповещений нет и кадры ничего не стоят.
+ * Рисуется всегда последний прочитанный снимок, поэтому перерисовка по другим причинам
+ * (открытие окна, изменение размеров) совпадает с инкрементальной. Само поле рисует
+ * {@link GameScene}: препятствия из статического слоя, робота - спрайтом {@link RobotSpriteCache}.
+ * Если карта изменена, слой нужно сбросить методом {@link #invalidateStaticLayer()}.
+ * <p>
+ * Поле показывается через окно просмотра {@link Viewport}: при его смене, а также при перемещении
+ * роботов флота из нескольких роботов перерисовывается вся панель, но рисуются только роботы,
+ * попавшие в область перерисовки. Когда их много, сцена растеризует их параллельно по плиткам
+ * {@link TileRasterizer} и копирует результат в панель одним вызовом {@code drawImage}.
  */
-public class GameVisualizer extends JPanel implements Observer
+public class GameVisualizer extends JPanel implements ModelChangeListener
 {
-    private final ModelRobot modelRobot;
-    private final int duration;
+    private final GameScene scene;
 
     /**
      * Конструктор класса GameVisualizer.
      * @param modelRobot Модель робота, за которой следит визуализатор.
-     * @param duration Длительность перемещения робота.
      */
-    public GameVisualizer(ModelRobot modelRobot, int duration)
+    public GameVisualizer(ModelRobot modelRobot)
     {
-        this.modelRobot = modelRobot;
-        this.duration = duration;
-        setDoubleBuffered(true);
+        this(modelRobot, new RobotSpriteCache());
     }
 
     /**
-     * Метод, вызываемый при событии перерисовки, инициирует перерисовку панели.
+     * Конструктор класса GameVisualizer с заданным кэшем спрайтов робота.
+     * @param modelRobot Модель робота, за которой следит визуализатор.
+     * @param sprites Кэш спрайтов, задающий число направлений и ёмкость.
      */
-    protected void onRedrawEvent()
+    public GameVisualizer(ModelRobot modelRobot, RobotSpriteCache sprites)
     {
-        EventQueue.invokeLater(this::repaint);
+        this.scene = new GameScene(modelRobot, sprites);
+        setDoubleBuffered(true);
     }
 
     /**
-     * Метод, вызываемый при событии обновления модели робота, вызывает метод перемещения робота на новые координаты.
+     * Возвращает кэш спрайтов робота, например для смены цветов.
+     *
+     * @return кэш спрайтов
      */
-    protected void onModelUpdateEvent()
-    {
-        modelRobot.moveRobot(modelRobot.getTargetX(), modelRobot.getTargetY(), duration);
-    }
-    private static int round(double value)
-    {
-        return (int)(value + 0.5);
+    public RobotSpriteCache getSpriteCache() {
+        return scene.getSprites();
     }
 
-    @Override
-    public void paint(Graphics g)
-    {
-        super.paint(g);
-        Graphics2D g2d = (Graphics2D)g;
-        drawRobot(g2d, round(modelRobot.getRobotX()), round(modelRobot.getRobotY()), modelRobot.getDirection());
-        drawTarget(g2d, modelRobot.getTargetX(), modelRobot.getTargetY());
-    }
-
-    private static void fillOval(Graphics g, int centerX, int centerY, int diam1, int diam2)
-    {
-        g.fillOval(centerX - diam1 / 2, centerY - diam2 / 2, diam1, diam2);
+    /**
+     * Возвращает окно просмотра поля.
+     *
+     * @return окно просмотра
+     */
+    public Viewport getViewport() {
+        return scene.getViewport();
     }
 
-    private static void drawOval(Graphics g, int centerX, int centerY, int diam1, int diam2)
-    {
-        g.drawOval(centerX - diam1 / 2, centerY - diam2 / 2, diam1, diam2);
+    /**
+     * Задаёт окно просмотра поля и перерисовывает панель. Вызывается в потоке событий.
+     *
+     * @param viewport окно просмотра
+     */
+    public void setViewport(Viewport viewport) {
+        scene.setViewport(viewport);
+        updateDirtyRegion(false);
     }
 
-    private void drawRobot(Graphics2D g, int x, int y, double direction)
-    {
-        int robotCenterX = round(modelRobot.getRobotX());
-        int robotCenterY = round(modelRobot.getRobotY());
-        AffineTransform t = AffineTransform.getRotateInstance(direction, robotCenterX, robotCenterY);
-        g.setTransform(t);
-        g.setColor(Color.MAGENTA);
-        fillOval(g, robotCenterX, robotCenterY, 30, 10);
-        g.setColor(Color.BLACK);
-        drawOval(g, robotCenterX, robotCenterY, 30, 10);
-        g.setColor(Color.WHITE);
-        fillOval(g, robotCenterX  + 10, robotCenterY, 5, 5);
-        g.setColor(Color.BLACK);
-        drawOval(g, robotCenterX  + 10, robotCenterY, 5, 5);
+    /**
+     * При смене оформления спрайты рисуются заново.
+     */
+    @Override
+    public void updateUI() {
+        super.updateUI();
+        if (scene != null) {
+            scene.getSprites().invalidate();
+            repaint();
+        }
     }
 
-    private void drawTarget(Graphics2D g, int x, int y)
-    {
-        AffineTransform t = AffineTransform.getRotateInstance(0, 0, 0);
-        g.setTransform(t);
-        g.setColor(Color.GREEN);
-        fillOval(g, x, y, 5, 5);
-        g.setColor(Color.BLACK);
-        drawOval(g, x, y, 5, 5);
+    /**
+     * Сбрасывает статический слой с препятствиями; он будет нарисован заново при следующей перерисовке.
+     * Вызывается в потоке событий после изменения карты препятствий.
+     */
+    public void invalidateStaticLayer() {
+        scene.invalidateStaticLayer();
+        repaint();
     }
 
-    private void onRobotPositionChanged() {
-        onRedrawEvent();
+    /**
+     * Читает новый снимок и перерисовывает объединение прежних и новых прямоугольников
+     * робота и цели, если их изображение изменилось, или всю панель.
+     */
+    private void updateDirtyRegion(boolean fleetMoved) {
+        Rectangle dirty = scene.update(fleetMoved);
+        if (dirty == GameScene.ALL) {
+            repaint();
+        } else if (dirty != null) {
+            repaint(dirty);
+        }
     }
 
-    private void onTargetPositionChanged() {
-        onRedrawEvent();
+    @Override
+    public void paint(Graphics g)
+    {
+        super.paint(g);
+        scene.paint((Graphics2D)g, getWidth(), getHeight());
     }
 
     @Override
-    public void update(Observable o, Object arg) {
-        if (modelRobot.equals(o)) {
-            if (ModelRobot.key_robot_pos_changed.equals(arg)) {
-                onRobotPositionChanged();
-            }
-        }
-        if (modelRobot.equals(o)) {
-            if (ModelRobot.key_target_pos_changed.equals(arg)) {
-                onTargetPositionChanged();
-            }
+    public void onModelChanged(int changes) {
+        if ((changes & (ModelChangeChannel.ROBOT_MOVED | ModelChangeChannel.TARGET_CHANGED)) != 0) {
+            updateDirtyRegion((changes & ModelChangeChannel.ROBOT_MOVED) != 0);
         }
     }
-}
\ No newline at end of file
+}
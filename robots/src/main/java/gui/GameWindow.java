@@ -2,75 +2,302 @@ package gui;
 
 import serialization.Saveable;
 import serialization.State;
+import log.Logger;
 import model.ModelRobot;
+import model.ObstacleMap;
+import model.RoutePlanner;
+import simulation.SimulationClock;
+import simulation.SimulationLoop;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.beans.PropertyVetoException;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.JInternalFrame;
+import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.Timer;
 
 public class GameWindow extends JInternalFrame implements Saveable
 {
     private final GameVisualizer m_visualizer;
     private final ModelRobot modelRobot;
-    private final CoordWindow coordWindow;
+    private final JPanel m_panel;
+    private ActiveGameCanvas m_canvas;
+    private final FieldMouseHandler m_mouseHandler = new FieldMouseHandler();
+    private final JLabel m_statisticsLabel = new JLabel();
+    private final Timer m_statisticsTimer;
+    private int m_maxFps = ActiveGameCanvas.DEFAULT_MAX_FPS;
 
-    private final Timer m_timer = initTimer();
-    private final static int durationRedraw = 10;
+    private final SimulationLoop m_loop;
+    private final SimulationClock m_clock;
+    private final static int tickDuration = 10;
+    private final static int framePeriod = 50;
+    private final static int maxTicksPerFrame = 10;
+    private final static int statisticsPeriod = 500;
+    private final static String obstaclesResource = "/obstacles.txt";
+    private final static double obstacleCellSize = 20;
+    private final static int defaultSize = 400;
 
-    private static Timer initTimer()
-    {
-        Timer timer = new Timer("events generator", true);
-        return timer;
-    }
     public GameWindow(ModelRobot robot)
     {
         super("Игровое поле", true, true, true, true);
         modelRobot = robot;
-        m_visualizer = new GameVisualizer(modelRobot, durationRedraw);
-        coordWindow = new CoordWindow(modelRobot);
-        m_timer.schedule(new TimerTask()
-        {
-            @Override
-            public void run()
-            {
-                m_visualizer.onRedrawEvent();
+        ObstacleMap obstacles = loadObstacles();
+        if (obstacles != null) {
+            modelRobot.setRoutePlanner(new RoutePlanner(modelRobot.getFleet(), obstacles));
+        }
+        m_visualizer = new GameVisualizer(modelRobot);
+        m_clock = new SimulationClock(modelRobot.getFleet(), tickDuration);
+        m_loop = new SimulationLoop("events generator",
+                TimeUnit.MILLISECONDS.toNanos(tickDuration), maxTicksPerFrame, m_clock);
+        m_loop.setFrameCallback(TimeUnit.MILLISECONDS.toNanos(framePeriod), modelRobot.getChanges()::flush);
+        m_loop.start();
+        m_visualizer.addMouseListener(m_mouseHandler);
+        m_visualizer.addMouseMotionListener(m_mouseHandler);
+        m_visualizer.addMouseWheelListener(m_mouseHandler);
+
+        modelRobot.getChanges().subscribe(m_visualizer, EventQueue::invokeLater);
+        m_panel = new JPanel(new BorderLayout());
+        m_panel.add(m_visualizer, BorderLayout.CENTER);
+        m_statisticsTimer = new Timer(statisticsPeriod, e -> updateStatistics());
+        getContentPane().add(m_panel);
+        setSize(defaultSize, defaultSize);
+    }
+
+    /**
+     * Щелчок по полю задаёт роботу новую цель, а с нажатой Shift - добавляет точку маршрута.
+     * Координаты передаются в координатах мира.
+     */
+    private void onFieldClicked(int x, int y, boolean enqueue) {
+        if (enqueue) {
+            modelRobot.enqueueWaypoint(x, y);
+        } else {
+            modelRobot.setTargetPosition(x, y);
+        }
+    }
+
+    /**
+     * Проверяет, рисуется ли поле в режиме активной отрисовки.
+     *
+     * @return true, если поле рисует {@link ActiveGameCanvas}
+     */
+    public boolean isActiveRendering() {
+        return m_canvas != null && m_canvas.getParent() == m_panel;
+    }
+
+    /**
+     * Переключает поле между активной отрисовкой {@link ActiveGameCanvas} с отдельным потоком
+     * и обычной перерисовкой Swing {@link GameVisualizer}. Вызывается в потоке событий.
+     *
+     * @param active true для активной отрисовки
+     */
+    public void setActiveRendering(boolean active) {
+        if (active == isActiveRendering()) {
+            return;
+        }
+
+        if (active) {
+            if (m_canvas == null) {
+                m_canvas = new ActiveGameCanvas(modelRobot, m_maxFps);
+                m_canvas.setViewport(m_visualizer.getViewport());
+                m_canvas.addMouseListener(m_mouseHandler);
+                m_canvas.addMouseMotionListener(m_mouseHandler);
+                m_canvas.addMouseWheelListener(m_mouseHandler);
             }
-        }, 0, 50);
-        m_timer.schedule(new TimerTask()
-        {
-            @Override
-            public void run()
-            {
-                m_visualizer.onModelUpdateEvent();
+            m_canvas.setPreferredSize(m_visualizer.getSize());
+            m_panel.remove(m_visualizer);
+            m_panel.add(m_canvas, BorderLayout.CENTER);
+        } else {
+            m_panel.remove(m_canvas);
+            m_panel.add(m_visualizer, BorderLayout.CENTER);
+        }
+        m_panel.revalidate();
+        m_panel.repaint();
+        updateStatistics();
+    }
+
+    /**
+     * Возвращает ограничение частоты кадров активной отрисовки.
+     *
+     * @return кадров в секунду или 0 без ограничения
+     */
+    public int getMaxFps() {
+        return m_maxFps;
+    }
+
+    /**
+     * Устанавливает ограничение частоты кадров активной отрисовки. Ограничение запоминается
+     * и применяется к холсту, в том числе созданному позже, при включении активной отрисовки.
+     *
+     * @param maxFps кадров в секунду или 0 без ограничения
+     * @throws IllegalArgumentException если ограничение отрицательно
+     */
+    public void setMaxFps(int maxFps) {
+        if (maxFps < 0) {
+            throw new IllegalArgumentException("maxFps must not be negative");
+        }
+        m_maxFps = maxFps;
+        if (m_canvas != null) {
+            m_canvas.setMaxFps(maxFps);
+        }
+    }
+
+    /**
+     * Проверяет, показывается ли строка статистики кадров под полем.
+     *
+     * @return true, если строка показывается
+     */
+    public boolean isStatisticsVisible() {
+        return m_statisticsLabel.getParent() == m_panel;
+    }
+
+    /**
+     * Показывает или скрывает под полем строку статистики кадров активной отрисовки,
+     * которая обновляется дважды в секунду. Вызывается в потоке событий.
+     *
+     * @param visible true, чтобы показать строку
+     */
+    public void setStatisticsVisible(boolean visible) {
+        if (visible == isStatisticsVisible()) {
+            return;
+        }
+
+        if (visible) {
+            m_panel.add(m_statisticsLabel, BorderLayout.SOUTH);
+            updateStatistics();
+            m_statisticsTimer.start();
+        } else {
+            m_statisticsTimer.stop();
+            m_panel.remove(m_statisticsLabel);
+        }
+        m_panel.revalidate();
+        m_panel.repaint();
+    }
+
+    private void updateStatistics() {
+        if (!isActiveRendering()) {
+            m_statisticsLabel.setText("Активная отрисовка выключена");
+            return;
+        }
+
+        FrameStatistics statistics = m_canvas.getStatistics();
+        m_statisticsLabel.setText(String.format(
+                "Кадров/с: %.1f, время кадра: среднее %.2f мс, наибольшее %.2f мс, пропущено кадров: %d",
+                statistics.getFramesPerSecond(), statistics.getAverageFrameMillis(),
+                statistics.getMaxFrameMillis(), statistics.getSkippedFrames()));
+    }
+
+    /**
+     * Возвращает холст активной отрисовки, например для ограничения частоты кадров и статистики.
+     *
+     * @return холст или null, если активная отрисовка ещё не включалась
+     */
+    public ActiveGameCanvas getActiveCanvas() {
+        return m_canvas;
+    }
+
+    /**
+     * Возвращает окно просмотра игрового поля.
+     *
+     * @return окно просмотра
+     */
+    public Viewport getViewport() {
+        return m_visualizer.getViewport();
+    }
+
+    /**
+     * Задаёт окно просмотра игрового поля для обоих способов отрисовки. Вызывается в потоке событий.
+     *
+     * @param viewport окно просмотра
+     */
+    public void setViewport(Viewport viewport) {
+        m_visualizer.setViewport(viewport);
+        if (m_canvas != null) {
+            m_canvas.setViewport(viewport);
+        }
+    }
+
+    /**
+     * Загружает карту препятствий игрового поля из ресурсов приложения.
+     *
+     * @return карта препятствий или null, если карта не найдена или не прочитана
+     */
+    private static ObstacleMap loadObstacles() {
+        try (InputStream in = GameWindow.class.getResourceAsStream(obstaclesResource)) {
+            if (in == null) {
+                return null;
             }
-        }, 0, durationRedraw);
-        addMouseListener(new MouseAdapter()
+            return ObstacleMap.load(in, obstacleCellSize);
+        } catch (IOException e) {
+            Logger.error("Не удалось загрузить карту препятствий: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Возвращает цикл модели игрового поля, например для чтения счётчиков тактов.
+     *
+     * @return цикл модели
+     */
+    public SimulationLoop getSimulationLoop() {
+        return m_loop;
+    }
+
+    /**
+     * Возвращает часы модели игрового поля для паузы, пошагового режима и ускорения времени.
+     *
+     * @return часы модели
+     */
+    public SimulationClock getSimulationClock() {
+        return m_clock;
+    }
+
+    /**
+     * Обработчик мыши поля: щелчок задаёт цель в координатах мира, перетаскивание сдвигает
+     * окно просмотра, колесо масштабирует его относительно точки под курсором.
+     */
+    private class FieldMouseHandler extends MouseAdapter
+    {
+        private static final double zoomStep = 1.1;
+
+        private int dragX;
+        private int dragY;
+
+        @Override
+        public void mouseClicked(MouseEvent e)
         {
-            @Override
-            public void mouseClicked(MouseEvent e)
-            {
-                modelRobot.setTargetPosition(new Point(
-                        e.getX() - (getWidth() - m_visualizer.getWidth()) / 2,
-                        e.getY() + (getHeight() - m_visualizer.getHeight() - coordWindow.getHeight()) / 4
-                                - coordWindow.getHeight()
-                                - (getHeight() - m_visualizer.getHeight() - coordWindow.getHeight()))
-                );
-                repaint();
-            }
-        });
-
-        modelRobot.addObserver(coordWindow);
-        modelRobot.addObserver(m_visualizer);
-        JPanel panel = new JPanel(new BorderLayout());
-        panel.add(coordWindow, BorderLayout.WEST);
-        panel.add(m_visualizer, BorderLayout.CENTER);
-        getContentPane().add(panel);
-        pack();
+            Viewport viewport = getViewport();
+            int x = (int) Math.round(viewport.toWorldX(e.getX()));
+            int y = (int) Math.round(viewport.toWorldY(e.getY()));
+            onFieldClicked(x, y, e.isShiftDown());
+        }
+
+        @Override
+        public void mousePressed(MouseEvent e)
+        {
+            dragX = e.getX();
+            dragY = e.getY();
+        }
+
+        @Override
+        public void mouseDragged(MouseEvent e)
+        {
+            setViewport(getViewport().panned(e.getX() - dragX, e.getY() - dragY));
+            dragX = e.getX();
+            dragY = e.getY();
+        }
+
+        @Override
+        public void mouseWheelMoved(MouseWheelEvent e)
+        {
+            double factor = Math.pow(zoomStep, -e.getPreciseWheelRotation());
+            setViewport(getViewport().zoomedAt(e.getX(), e.getY(), factor));
+        }
     }
 
     @Override
@@ -1,6 +1,7 @@
 package gui;
 
 import java.awt.Dimension;
+import java.awt.EventQueue;
 import java.awt.Toolkit;
 import java.awt.event.*;
 import java.io.File;
@@ -14,6 +15,7 @@ import model.ModelRobot;
 import serialization.Saveable;
 import serialization.State;
 import serialization.StateHandler;
+import simulation.SimulationClock;
 
 /**
  * Что требуется сделать:
@@ -26,6 +28,8 @@ public class MainApplicationFrame extends JFrame
     private final JDesktopPane desktopPane = new JDesktopPane();
 
     private final String path = (System.getProperty("user.home") + "/state.json");
+    private SimulationClock simulationClock;
+    private GameWindow gameWindow;
     public MainApplicationFrame() {
         //Make the big window be indented 50 pixels from each edge
         //of the screen.
@@ -42,11 +46,12 @@ public class MainApplicationFrame extends JFrame
 
         ModelRobot robot = new ModelRobot();
 
-        GameWindow gameWindow = new GameWindow(robot);
+        gameWindow = new GameWindow(robot);
+        simulationClock = gameWindow.getSimulationClock();
         addWindow(gameWindow);
 
         CoordWindow coordWindow = new CoordWindow(robot);
-        robot.addObserver(coordWindow);
+        robot.getChanges().subscribe(coordWindow, EventQueue::invokeLater);
         addWindow(coordWindow);
 
         Map<String, State> states = stateHandler.loadAllData();
@@ -192,6 +197,40 @@ public class MainApplicationFrame extends JFrame
             lookAndFeelMenu.add(crossplatformLookAndFeel);
         }
 
+        JMenu renderingMenu = new JMenu("Отрисовка");
+        renderingMenu.setMnemonic(KeyEvent.VK_R);
+        renderingMenu.getAccessibleContext().setAccessibleDescription(
+                "Управление отрисовкой игрового поля");
+
+        {
+            JCheckBoxMenuItem activeRenderingItem = new JCheckBoxMenuItem("Активная отрисовка",
+                    gameWindow.isActiveRendering());
+            activeRenderingItem.addActionListener((event) ->
+                    gameWindow.setActiveRendering(activeRenderingItem.isSelected()));
+            renderingMenu.add(activeRenderingItem);
+        }
+
+        renderingMenu.addSeparator();
+        ButtonGroup fpsGroup = new ButtonGroup();
+        for (int fps : new int[] {30, 60, 144, 0}) {
+            JRadioButtonMenuItem fpsItem = new JRadioButtonMenuItem(
+                    fps > 0 ? "Не больше " + fps + " кадров/с" : "Без ограничения кадров",
+                    gameWindow.getMaxFps() == fps);
+            fpsItem.addActionListener((event) -> gameWindow.setMaxFps(fps));
+            fpsGroup.add(fpsItem);
+            renderingMenu.add(fpsItem);
+        }
+
+        renderingMenu.addSeparator();
+        {
+            JCheckBoxMenuItem statisticsItem = new JCheckBoxMenuItem("Статистика кадров",
+                    gameWindow.isStatisticsVisible());
+            statisticsItem.setMnemonic(KeyEvent.VK_F);
+            statisticsItem.addActionListener((event) ->
+                    gameWindow.setStatisticsVisible(statisticsItem.isSelected()));
+            renderingMenu.add(statisticsItem);
+        }
+
         JMenu testMenu = new JMenu("Тесты");
         testMenu.setMnemonic(KeyEvent.VK_T);
         testMenu.getAccessibleContext().setAccessibleDescription(
@@ -205,6 +244,38 @@ public class MainApplicationFrame extends JFrame
             testMenu.add(addLogMessageItem);
         }
 
+        JMenu simulationMenu = new JMenu("Моделирование");
+        simulationMenu.setMnemonic(KeyEvent.VK_M);
+        simulationMenu.getAccessibleContext().setAccessibleDescription(
+                "Управление ходом времени модели");
+
+        {
+            JMenuItem pauseItem = new JMenuItem("Пауза / продолжить", KeyEvent.VK_P);
+            pauseItem.addActionListener((event) -> {
+                if (simulationClock.isPaused()) {
+                    simulationClock.resume();
+                } else {
+                    simulationClock.pause();
+                }
+            });
+            simulationMenu.add(pauseItem);
+        }
+
+        {
+            JMenuItem stepItem = new JMenuItem("Один шаг", KeyEvent.VK_S);
+            stepItem.addActionListener((event) -> {
+                simulationClock.pause();
+                simulationClock.step();
+            });
+            simulationMenu.add(stepItem);
+        }
+
+        for (int scale : new int[] {1, 10, 100}) {
+            JMenuItem scaleItem = new JMenuItem("Скорость x" + scale);
+            scaleItem.addActionListener((event) -> simulationClock.setTimeScale(scale));
+            simulationMenu.add(scaleItem);
+        }
+
         JMenu closeMenu = new JMenu("Закрыть");
         closeMenu.setMnemonic(KeyEvent.VK_C);
         closeMenu.getAccessibleContext().setAccessibleDescription(
@@ -220,7 +291,9 @@ public class MainApplicationFrame extends JFrame
         }
 
         menuBar.add(lookAndFeelMenu);
+        menuBar.add(renderingMenu);
         menuBar.add(testMenu);
+        menuBar.add(simulationMenu);
         menuBar.add(closeMenu);
         return menuBar;
     }
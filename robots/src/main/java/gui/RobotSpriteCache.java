@@ -0,0 +1,218 @@
+package gui;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Класс RobotSpriteCache хранит изображения робота, заранее повёрнутые на квантованные углы:
+ * полный круг делится на заданное число направлений, и для каждого использованного направления
+ * один раз рисуется спрайт. После этого робот рисуется одним копированием изображения
+ * вместо поворота графики и четырёх овалов.
+ * <p>
+ * Спрайты создаются совместимыми с конфигурацией устройства, на которое выполняется рисование,
+ * и создаются заново при смене конфигурации, цветов или оформления ({@link #invalidate()}).
+ * Если ёмкость меньше числа направлений, хранятся только последние созданные спрайты,
+ * а самый старый вытесняется. Класс используется только из потока событий.
+ */
+public class RobotSpriteCache {
+    /**
+     * Число направлений по умолчанию.
+     */
+    public static final int DEFAULT_ANGLES = 256;
+
+    /**
+     * Половина стороны квадратного спрайта: робот длиной 30 при любом повороте с контуром.
+     */
+    static final int EXTENT = 17;
+
+    private static final int SIZE = 2 * EXTENT + 1;
+
+    private final int angles;
+    private final int capacity;
+    private final Image[] sprites;
+    private final int[] order;
+    private int oldest;
+    private int count;
+
+    private GraphicsConfiguration configuration;
+    private Color bodyColor = Color.MAGENTA;
+    private Color outlineColor = Color.BLACK;
+    private Color eyeColor = Color.WHITE;
+
+    /**
+     * Создает кэш на {@link #DEFAULT_ANGLES} направлений, хранящий спрайты всех направлений.
+     */
+    public RobotSpriteCache() {
+        this(DEFAULT_ANGLES, DEFAULT_ANGLES);
+    }
+
+    /**
+     * Создает кэш.
+     *
+     * @param angles   число направлений, на которые делится полный круг
+     * @param capacity наибольшее число хранимых спрайтов
+     * @throws IllegalArgumentException если число направлений или ёмкость не положительны
+     */
+    public RobotSpriteCache(int angles, int capacity) {
+        if (angles <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("angles and capacity must be positive");
+        }
+
+        this.angles = angles;
+        this.capacity = Math.min(capacity, angles);
+        sprites = new Image[angles];
+        order = new int[this.capacity];
+    }
+
+    /**
+     * Возвращает число направлений.
+     *
+     * @return число направлений
+     */
+    public int getAngles() {
+        return angles;
+    }
+
+    /**
+     * Возвращает наибольшее число хранимых спрайтов.
+     *
+     * @return ёмкость кэша
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Возвращает число созданных спрайтов.
+     *
+     * @return число спрайтов в кэше
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Возвращает цвет корпуса робота.
+     *
+     * @return цвет корпуса
+     */
+    public Color getBodyColor() {
+        return bodyColor;
+    }
+
+    /**
+     * Устанавливает цвета робота и сбрасывает кэш.
+     *
+     * @param body    цвет корпуса
+     * @param outline цвет контуров
+     * @param eye     цвет "глаза", показывающего направление
+     */
+    public void setColors(Color body, Color outline, Color eye) {
+        bodyColor = body;
+        outlineColor = outline;
+        eyeColor = eye;
+        invalidate();
+    }
+
+    /**
+     * Удаляет все спрайты; они будут нарисованы заново при следующем обращении.
+     */
+    public void invalidate() {
+        for (int k = 0; k < count; k++) {
+            int angle = order[(oldest + k) % capacity];
+            sprites[angle].flush();
+            sprites[angle] = null;
+        }
+        oldest = 0;
+        count = 0;
+    }
+
+    /**
+     * Возвращает номер квантованного направления, ближайшего к заданному углу.
+     *
+     * @param direction угол направления в радианах
+     * @return номер направления от 0 до {@code getAngles() - 1}
+     */
+    public int angleIndex(double direction) {
+        long index = Math.round(direction / (2 * Math.PI) * angles) % angles;
+        return (int) (index < 0 ? index + angles : index);
+    }
+
+    /**
+     * Рисует робота спрайтом ближайшего квантованного направления.
+     *
+     * @param g         графика
+     * @param x         позиция центра робота по оси X
+     * @param y         позиция центра робота по оси Y
+     * @param direction угол направления робота в радианах
+     */
+    public void draw(Graphics2D g, int x, int y, double direction) {
+        GraphicsConfiguration current = g.getDeviceConfiguration();
+        if (current != configuration) {
+            invalidate();
+            configuration = current;
+        }
+
+        int angle = angleIndex(direction);
+        Image sprite = sprites[angle];
+        if (sprite == null) {
+            sprite = createSprite(angle);
+            store(angle, sprite);
+        }
+        g.drawImage(sprite, x - EXTENT, y - EXTENT, null);
+    }
+
+    private void store(int angle, Image sprite) {
+        if (count == capacity) {
+            int evicted = order[oldest];
+            sprites[evicted].flush();
+            sprites[evicted] = null;
+            oldest = (oldest + 1) % capacity;
+            count--;
+        }
+        order[(oldest + count) % capacity] = angle;
+        count++;
+        sprites[angle] = sprite;
+    }
+
+    private Image createSprite(int angle) {
+        Image sprite = configuration != null
+                ? configuration.createCompatibleImage(SIZE, SIZE, Transparency.TRANSLUCENT)
+                : new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = (Graphics2D) sprite.getGraphics();
+        try {
+            paintRobot(g, EXTENT, EXTENT, 2 * Math.PI * angle / angles);
+        } finally {
+            g.dispose();
+        }
+        return sprite;
+    }
+
+    /**
+     * Рисует робота векторной графикой, повернув его вокруг центра.
+     */
+    private void paintRobot(Graphics2D g, int robotCenterX, int robotCenterY, double direction) {
+        g.rotate(direction, robotCenterX, robotCenterY);
+        g.setColor(bodyColor);
+        fillOval(g, robotCenterX, robotCenterY, 30, 10);
+        g.setColor(outlineColor);
+        drawOval(g, robotCenterX, robotCenterY, 30, 10);
+        g.setColor(eyeColor);
+        fillOval(g, robotCenterX + 10, robotCenterY, 5, 5);
+        g.setColor(outlineColor);
+        drawOval(g, robotCenterX + 10, robotCenterY, 5, 5);
+    }
+
+    private static void fillOval(Graphics g, int centerX, int centerY, int diam1, int diam2) {
+        g.fillOval(centerX - diam1 / 2, centerY - diam2 / 2, diam1, diam2);
+    }
+
+    private static void drawOval(Graphics g, int centerX, int centerY, int diam1, int diam2) {
+        g.drawOval(centerX - diam1 / 2, centerY - diam2 / 2, diam1, diam2);
+    }
+}
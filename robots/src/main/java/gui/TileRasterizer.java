@@ -0,0 +1,304 @@
+package gui;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Класс TileRasterizer рисует множество роботов кружками прямо в массив пикселей {@code int[]}
+ * изображения {@link BufferedImage}, деля область рисования на квадратные плитки, которые
+ * рисуются параллельно задачами fork/join.
+ * <p>
+ * Сначала роботы раскладываются по плиткам сортировкой подсчётом: робот попадает в каждую плитку,
+ * которую задевает его кружок. Затем каждая задача очищает свои плитки и рисует в них своих роботов,
+ * обрезая кружки по границам плитки. Плитки не пересекаются, поэтому задачи пишут в разные
+ * пиксели и не синхронизируются друг с другом.
+ * <p>
+ * Пиксели, в которые попал хотя бы один робот, закрашиваются цветом роботов; с каждым следующим
+ * роботом в том же пикселе непрозрачность растёт, поэтому при малом масштабе изображение
+ * становится картой плотности флота. Остальные пиксели прозрачны.
+ * <p>
+ * Экземпляр не потокобезопасен: изображение и служебные массивы переиспользуются от кадра к кадру,
+ * поэтому рисовать должен один поток.
+ */
+public class TileRasterizer {
+    /**
+     * Сторона плитки в пикселях по умолчанию.
+     */
+    public static final int DEFAULT_TILE_SIZE = 64;
+
+    /**
+     * Число плиток, рисуемых одной задачей без деления.
+     */
+    private static final int tilesPerTask = 4;
+
+    /**
+     * Непрозрачность пикселя, в который попал один робот.
+     */
+    private static final int firstAlpha = 160;
+
+    /**
+     * Прибавка непрозрачности за каждого следующего робота в том же пикселе.
+     */
+    private static final int nextAlpha = 32;
+
+    private final ForkJoinPool pool;
+    private final int tileSize;
+
+    private BufferedImage image;
+    private int[] pixels;
+    private int[] tileStart = new int[1];
+    private int[] tileRobots = new int[0];
+    private int[] spans = new int[1];
+    private int spansRadius;
+
+    /**
+     * Создает растеризатор с плитками по умолчанию на общем пуле fork/join.
+     */
+    public TileRasterizer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Создает растеризатор.
+     *
+     * @param pool     пул, в котором рисуются плитки
+     * @param tileSize сторона плитки в пикселях
+     * @throws IllegalArgumentException если сторона плитки не положительна
+     */
+    public TileRasterizer(ForkJoinPool pool, int tileSize) {
+        if (tileSize <= 0) {
+            throw new IllegalArgumentException("tileSize must be positive");
+        }
+
+        this.pool = pool;
+        this.tileSize = tileSize;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * Рисует роботов кружками в области изображения. Вне области изображение не изменяется.
+     *
+     * @param xs     позиции центров роботов по оси X в пикселях
+     * @param ys     позиции центров роботов по оси Y в пикселях
+     * @param count  число роботов
+     * @param radius радиус кружка в пикселях; при 0 робот занимает один пиксель
+     * @param rgb    цвет роботов без прозрачности
+     * @param area   область рисования
+     * @param width  ширина изображения
+     * @param height высота изображения
+     * @return изображение размером не меньше заданного, в котором нарисована область
+     */
+    public BufferedImage rasterize(int[] xs, int[] ys, int count, int radius, int rgb,
+                                   Rectangle area, int width, int height) {
+        ensureImage(width, height);
+        ensureSpans(radius);
+        Rectangle clip = area.intersection(new Rectangle(0, 0, width, height));
+        if (clip.isEmpty()) {
+            return image;
+        }
+
+        Frame frame = new Frame(xs, ys, radius, rgb & 0xFFFFFF, clip);
+        bin(frame, count);
+        if (frame.tiles() <= tilesPerTask) {
+            drawTiles(frame, 0, frame.tiles());
+        } else {
+            pool.invoke(new TileTask(frame, 0, frame.tiles()));
+        }
+        return image;
+    }
+
+    private void ensureImage(int width, int height) {
+        if (image == null || image.getWidth() < width || image.getHeight() < height) {
+            image = new BufferedImage(Math.max(1, width), Math.max(1, height), BufferedImage.TYPE_INT_ARGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        }
+    }
+
+    /**
+     * Вычисляет полуширины строк кружка заданного радиуса.
+     */
+    private void ensureSpans(int radius) {
+        if (spansRadius == radius) {
+            return;
+        }
+
+        spans = new int[2 * radius + 1];
+        for (int dy = -radius; dy <= radius; dy++) {
+            spans[dy + radius] = (int) Math.sqrt(radius * radius - dy * dy + radius);
+        }
+        spansRadius = radius;
+    }
+
+    /**
+     * Раскладывает роботов по плиткам: первый проход считает роботов каждой плитки,
+     * второй записывает их индексы в массив плиток.
+     */
+    private void bin(Frame frame, int count) {
+        int tiles = frame.tiles();
+        if (tileStart.length < tiles + 1) {
+            tileStart = new int[tiles + 1];
+        }
+        Arrays.fill(tileStart, 0, tiles + 1, 0);
+
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            if (frame.cover(i)) {
+                for (int row = frame.fromRow; row <= frame.toRow; row++) {
+                    for (int column = frame.fromColumn; column <= frame.toColumn; column++) {
+                        tileStart[row * frame.columns + column + 1]++;
+                        total++;
+                    }
+                }
+            }
+        }
+        for (int tile = 0; tile < tiles; tile++) {
+            tileStart[tile + 1] += tileStart[tile];
+        }
+
+        if (tileRobots.length < total) {
+            tileRobots = new int[Math.max(total, 2 * tileRobots.length)];
+        }
+        int[] next = Arrays.copyOf(tileStart, tiles);
+        for (int i = 0; i < count; i++) {
+            if (frame.cover(i)) {
+                for (int row = frame.fromRow; row <= frame.toRow; row++) {
+                    for (int column = frame.fromColumn; column <= frame.toColumn; column++) {
+                        tileRobots[next[row * frame.columns + column]++] = i;
+                    }
+                }
+            }
+        }
+    }
+
+    private void drawTiles(Frame frame, int from, int to) {
+        for (int tile = from; tile < to; tile++) {
+            drawTile(frame, tile);
+        }
+    }
+
+    private void drawTile(Frame frame, int tile) {
+        Rectangle clip = frame.clip;
+        int tileX = frame.originX + (tile % frame.columns) * tileSize;
+        int tileY = frame.originY + (tile / frame.columns) * tileSize;
+        int left = Math.max(clip.x, tileX);
+        int top = Math.max(clip.y, tileY);
+        int right = Math.min(clip.x + clip.width, tileX + tileSize);
+        int bottom = Math.min(clip.y + clip.height, tileY + tileSize);
+        int stride = image.getWidth();
+
+        for (int y = top; y < bottom; y++) {
+            Arrays.fill(pixels, y * stride + left, y * stride + right, 0);
+        }
+
+        int radius = frame.radius;
+        int rgb = frame.rgb;
+        for (int k = tileStart[tile]; k < tileStart[tile + 1]; k++) {
+            int i = tileRobots[k];
+            int centerX = frame.xs[i];
+            int centerY = frame.ys[i];
+            int fromY = Math.max(top, centerY - radius);
+            int toY = Math.min(bottom - 1, centerY + radius);
+            for (int y = fromY; y <= toY; y++) {
+                int span = spans[y - centerY + radius];
+                int fromX = Math.max(left, centerX - span);
+                int toX = Math.min(right - 1, centerX + span);
+                for (int x = fromX; x <= toX; x++) {
+                    int pixel = y * stride + x;
+                    int alpha = pixels[pixel] >>> 24;
+                    alpha = alpha == 0 ? firstAlpha : Math.min(255, alpha + nextAlpha);
+                    pixels[pixel] = alpha << 24 | rgb;
+                }
+            }
+        }
+    }
+
+    /**
+     * Параметры одного кадра: роботы, область и сетка плиток, покрывающая область.
+     */
+    private final class Frame {
+        final int[] xs;
+        final int[] ys;
+        final int radius;
+        final int rgb;
+        final Rectangle clip;
+        final int originX;
+        final int originY;
+        final int columns;
+        final int rows;
+
+        int fromColumn;
+        int toColumn;
+        int fromRow;
+        int toRow;
+
+        Frame(int[] xs, int[] ys, int radius, int rgb, Rectangle clip) {
+            this.xs = xs;
+            this.ys = ys;
+            this.radius = radius;
+            this.rgb = rgb;
+            this.clip = clip;
+            originX = clip.x - clip.x % tileSize;
+            originY = clip.y - clip.y % tileSize;
+            columns = (clip.x + clip.width - originX + tileSize - 1) / tileSize;
+            rows = (clip.y + clip.height - originY + tileSize - 1) / tileSize;
+        }
+
+        int tiles() {
+            return columns * rows;
+        }
+
+        /**
+         * Вычисляет плитки, которые задевает кружок робота.
+         *
+         * @return false, если кружок не задевает область
+         */
+        boolean cover(int i) {
+            int left = Math.max(clip.x, xs[i] - radius);
+            int top = Math.max(clip.y, ys[i] - radius);
+            int right = Math.min(clip.x + clip.width - 1, xs[i] + radius);
+            int bottom = Math.min(clip.y + clip.height - 1, ys[i] + radius);
+            if (left > right || top > bottom) {
+                return false;
+            }
+
+            fromColumn = (left - originX) / tileSize;
+            toColumn = (right - originX) / tileSize;
+            fromRow = (top - originY) / tileSize;
+            toRow = (bottom - originY) / tileSize;
+            return true;
+        }
+    }
+
+    /**
+     * Задача, которая делит отрезок плиток пополам, пока он не станет не больше {@link #tilesPerTask}.
+     */
+    private class TileTask extends RecursiveAction {
+        private final Frame frame;
+        private final int from;
+        private final int to;
+
+        TileTask(Frame frame, int from, int to) {
+            this.frame = frame;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= tilesPerTask) {
+                drawTiles(frame, from, to);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new TileTask(frame, from, middle), new TileTask(frame, middle, to));
+        }
+    }
+}
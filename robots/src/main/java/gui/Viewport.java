@@ -0,0 +1,118 @@
+package gui;
+
+import java.awt.geom.AffineTransform;
+
+/**
+ * Класс Viewport - окно просмотра мира: какая точка мира находится в левом верхнем углу экрана
+ * и сколько пикселей экрана приходится на единицу мира. Экземпляры неизменяемы: сдвиг
+ * и масштабирование возвращают новое окно, поэтому окно можно передавать потоку отрисовки
+ * без синхронизации.
+ */
+public final class Viewport {
+    /**
+     * Окно без сдвига и масштаба: координаты экрана совпадают с координатами мира.
+     */
+    public static final Viewport IDENTITY = new Viewport(0, 0, 1);
+
+    /**
+     * Наименьший масштаб.
+     */
+    public static final double MIN_ZOOM = 1.0 / 1024;
+
+    /**
+     * Наибольший масштаб.
+     */
+    public static final double MAX_ZOOM = 64;
+
+    private final double originX;
+    private final double originY;
+    private final double zoom;
+
+    /**
+     * Создает окно просмотра.
+     *
+     * @param originX позиция мира по оси X в левом верхнем углу экрана
+     * @param originY позиция мира по оси Y в левом верхнем углу экрана
+     * @param zoom    пикселей экрана на единицу мира
+     * @throws IllegalArgumentException если масштаб вне [{@link #MIN_ZOOM}, {@link #MAX_ZOOM}]
+     */
+    public Viewport(double originX, double originY, double zoom) {
+        if (!(zoom >= MIN_ZOOM && zoom <= MAX_ZOOM)) {
+            throw new IllegalArgumentException("zoom out of range: " + zoom);
+        }
+
+        this.originX = originX;
+        this.originY = originY;
+        this.zoom = zoom;
+    }
+
+    public double getOriginX() {
+        return originX;
+    }
+
+    public double getOriginY() {
+        return originY;
+    }
+
+    public double getZoom() {
+        return zoom;
+    }
+
+    public double toScreenX(double worldX) {
+        return (worldX - originX) * zoom;
+    }
+
+    public double toScreenY(double worldY) {
+        return (worldY - originY) * zoom;
+    }
+
+    public double toWorldX(double screenX) {
+        return screenX / zoom + originX;
+    }
+
+    public double toWorldY(double screenY) {
+        return screenY / zoom + originY;
+    }
+
+    /**
+     * Возвращает окно, сдвинутое так, что изображение мира сместилось на заданный вектор экрана
+     * (как при перетаскивании мышью).
+     *
+     * @param dx сдвиг по оси X в пикселях экрана
+     * @param dy сдвиг по оси Y в пикселях экрана
+     * @return новое окно
+     */
+    public Viewport panned(double dx, double dy) {
+        return new Viewport(originX - dx / zoom, originY - dy / zoom, zoom);
+    }
+
+    /**
+     * Возвращает окно с масштабом, умноженным на заданный множитель (в пределах допустимого),
+     * при котором точка мира под заданной точкой экрана остаётся на месте.
+     *
+     * @param screenX позиция неподвижной точки по оси X на экране
+     * @param screenY позиция неподвижной точки по оси Y на экране
+     * @param factor  множитель масштаба
+     * @return новое окно
+     */
+    public Viewport zoomedAt(double screenX, double screenY, double factor) {
+        double newZoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom * factor));
+        return new Viewport(toWorldX(screenX) - screenX / newZoom, toWorldY(screenY) - screenY / newZoom, newZoom);
+    }
+
+    /**
+     * Возвращает преобразование координат мира в координаты экрана.
+     *
+     * @return новое преобразование
+     */
+    public AffineTransform getTransform() {
+        AffineTransform transform = AffineTransform.getScaleInstance(zoom, zoom);
+        transform.translate(-originX, -originY);
+        return transform;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Viewport[origin=(%.1f, %.1f), zoom=%.4f]", originX, originY, zoom);
+    }
+}
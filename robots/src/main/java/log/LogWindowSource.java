@@ -1,9 +1,10 @@
 package log;
 
-import notes.Notes;
+import notes.ConcurrentNotes;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * Что починить:
@@ -18,14 +19,14 @@ public class LogWindowSource
 {
     private int m_iQueueLength;
 
-    private final Notes<LogEntry> m_messages;
+    private final ConcurrentNotes<LogEntry> m_messages;
     private final ArrayList<LogChangeListener> m_listeners;
     private volatile LogChangeListener[] m_activeListeners;
 
     public LogWindowSource(int iQueueLength)
     {
         m_iQueueLength = iQueueLength;
-        m_messages = new Notes<>(iQueueLength);
+        m_messages = new ConcurrentNotes<>(iQueueLength);
         m_listeners = new ArrayList<LogChangeListener>();
     }
 
@@ -80,8 +81,9 @@ public class LogWindowSource
         {
             return Collections.emptyList();
         }
-        int indexTo = Math.min(startFrom + count, m_messages.size());
-        return m_messages.getSegment(startFrom, indexTo);
+        List<LogEntry> segment = new ArrayList<LogEntry>(Math.max(0, Math.min(count, m_messages.size())));
+        m_messages.read(m_messages.firstSequence() + startFrom, count, segment);
+        return segment;
     }
 
     public Iterable<LogEntry> all()
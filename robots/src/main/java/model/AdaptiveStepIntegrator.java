@@ -0,0 +1,114 @@
+package model;
+
+/**
+ * Класс AdaptiveStepIntegrator делит шаг на части так, чтобы погрешность позиции на каждой
+ * части не превышала заданного допуска, и выбирает при этом наибольшие возможные части.
+ * <p>
+ * Погрешность оценивается удвоением шага: часть длительностью h проходится базовым интегратором
+ * один раз целиком и дважды по h/2, а расстояние между полученными позициями принимается за
+ * оценку ошибки. Если оценка больше допуска, часть делится пополам (но не меньше наименьшей
+ * части); иначе принимается более точный результат двух половин, а после частей с большим
+ * запасом следующая часть удваивается. Пока решение о повороте не меняется, оценка равна нулю
+ * и весь шаг проходится одной частью, поэтому длительность шага можно увеличивать, сохраняя
+ * точность там, где робот поворачивает к цели.
+ * <p>
+ * Промежуточные состояния хранятся в массивах, своих у каждого потока и переиспользуемых
+ * от шага к шагу, поэтому интегратор не создаёт объектов на шаге робота и может использоваться
+ * одновременно несколькими потоками, например из {@link ParallelFleetStepper}.
+ */
+public class AdaptiveStepIntegrator implements MotionIntegrator {
+    private final MotionIntegrator base;
+    private final double tolerance;
+    private final double minStep;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Создает адаптивный интегратор поверх исходной кинематики {@link ExactArcIntegrator}
+     * с наименьшей частью шага 1.
+     *
+     * @param tolerance допустимая погрешность позиции на одной части шага
+     */
+    public AdaptiveStepIntegrator(double tolerance) {
+        this(new ExactArcIntegrator(), tolerance, 1);
+    }
+
+    /**
+     * Создает адаптивный интегратор.
+     *
+     * @param base      базовый интегратор, которым проходятся части шага
+     * @param tolerance допустимая погрешность позиции на одной части шага
+     * @param minStep   наименьшая длительность части; такие части принимаются без проверки
+     * @throws IllegalArgumentException если допуск или наименьшая часть не положительны
+     */
+    public AdaptiveStepIntegrator(MotionIntegrator base, double tolerance, double minStep) {
+        if (!(tolerance > 0) || !(minStep > 0)) {
+            throw new IllegalArgumentException("tolerance and minStep must be positive");
+        }
+
+        this.base = base;
+        this.tolerance = tolerance;
+        this.minStep = minStep;
+    }
+
+    /**
+     * Возвращает допустимую погрешность позиции на одной части шага.
+     *
+     * @return допуск
+     */
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    @Override
+    public boolean integrate(double[] state, double targetX, double targetY, double duration,
+                             MotionController controller) {
+        Scratch buffers = scratch.get();
+        double[] full = buffers.full;
+        double[] halves = buffers.halves;
+
+        boolean moved = false;
+        double remaining = duration;
+        double next = duration;
+
+        while (remaining > 0) {
+            double h = Math.min(next, remaining);
+
+            System.arraycopy(state, 0, full, 0, STATE_SIZE);
+            if (!base.integrate(full, targetX, targetY, h, controller)) {
+                break;
+            }
+
+            System.arraycopy(state, 0, halves, 0, STATE_SIZE);
+            base.integrate(halves, targetX, targetY, h / 2, controller);
+            controller.command(halves, targetX, targetY);
+            base.integrate(halves, targetX, targetY, h / 2, controller);
+
+            double error = RobotFleet.distance(full[X], full[Y], halves[X], halves[Y]);
+            if (error > tolerance && h > minStep) {
+                next = Math.max(h / 2, minStep);
+                continue;
+            }
+
+            System.arraycopy(halves, 0, state, 0, STATE_SIZE);
+            controller.command(state, targetX, targetY);
+            moved = true;
+            remaining -= h;
+            next = error < tolerance / 4 ? 2 * h : h;
+        }
+
+        return moved;
+    }
+
+    @Override
+    public String toString() {
+        return "adaptive(" + tolerance + ")";
+    }
+
+    /**
+     * Состояния после части шага целиком и после двух её половин.
+     */
+    private static final class Scratch {
+        final double[] full = new double[STATE_SIZE];
+        final double[] halves = new double[STATE_SIZE];
+    }
+}
@@ -0,0 +1,82 @@
+package model;
+
+/**
+ * Интерфейс ArcKernel - продвижение сразу отрезка роботов по дугам окружностей для заданных
+ * команд, то есть та же арифметика, что и в {@link ExactArcIntegrator}, но в одном цикле
+ * по столбцам массивов флота. Флот с установленным ядром ({@link RobotFleet#setKernel(ArcKernel)})
+ * и интегратором {@link ExactArcIntegrator} вычисляет новые позиции ядром, а затем публикует их.
+ * <p>
+ * Скалярное ядро {@link #scalar()} совпадает с {@link ExactArcIntegrator} бит в бит. Векторное
+ * ядро {@link #vector()} обрабатывает несколько роботов в линиях SIMD через
+ * {@code jdk.incubator.vector}; синусы и косинусы в линиях вычисляются другой реализацией,
+ * поэтому позиции расходятся со скалярным ядром не больше чем на {@link #TOLERANCE} за шаг.
+ * Векторное ядро не даёт побитово воспроизводимых результатов: интерпретируемая и скомпилированная
+ * JIT реализации синуса в линиях могут различаться в последнем знаке.
+ * Модуль подключается ключом {@code --add-modules jdk.incubator.vector}; без него
+ * {@link #vector()} возвращает скалярное ядро.
+ * <p>
+ * Реализации не хранят изменяемого состояния: одно ядро используется одновременно несколькими
+ * потоками шага для разных отрезков.
+ */
+public interface ArcKernel {
+    /**
+     * Наибольшее расхождение позиции векторного и скалярного ядра за один шаг.
+     */
+    double TOLERANCE = 1e-9;
+
+    /**
+     * Вычисляет позиции и направления роботов с индексами из полуинтервала [from, to)
+     * после движения по команде в течение заданного времени. Роботы у цели не исключаются:
+     * их новые позиции флот просто не публикует.
+     *
+     * @param xs                позиции роботов по оси X
+     * @param ys                позиции роботов по оси Y
+     * @param directions        направления роботов в радианах
+     * @param velocities        линейные скорости
+     * @param angularVelocities угловые скорости
+     * @param from              индекс первого робота (включительно)
+     * @param to                индекс последнего робота (не включительно)
+     * @param duration          длительность шага
+     * @param outXs             массив для новых позиций по оси X
+     * @param outYs             массив для новых позиций по оси Y
+     * @param outDirections     массив для новых направлений, нормализованных к [0, 2*PI)
+     */
+    void advance(double[] xs, double[] ys, double[] directions, double[] velocities, double[] angularVelocities,
+                 int from, int to, double duration, double[] outXs, double[] outYs, double[] outDirections);
+
+    /**
+     * Возвращает скалярное ядро.
+     *
+     * @return скалярное ядро
+     */
+    static ArcKernel scalar() {
+        return ScalarArcKernel.INSTANCE;
+    }
+
+    /**
+     * Проверяет, загружен ли модуль {@code jdk.incubator.vector}.
+     *
+     * @return true, если векторное ядро доступно
+     */
+    static boolean isVectorAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    /**
+     * Возвращает векторное ядро, если модуль {@code jdk.incubator.vector} загружен, иначе скалярное.
+     * Класс векторного ядра загружается через отражение, чтобы без модуля он не связывался.
+     *
+     * @return векторное или скалярное ядро
+     */
+    static ArcKernel vector() {
+        if (!isVectorAvailable()) {
+            return scalar();
+        }
+
+        try {
+            return (ArcKernel) Class.forName("model.VectorArcKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return scalar();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Класс AssignmentEngine распределяет цели между роботами флота так, чтобы суммарный путь
+ * роботов до целей был наименьшим. Каждой цели назначается не больше одного робота и каждому
+ * роботу - не больше одной цели; если роботов больше, чем целей, часть роботов остаётся
+ * без назначения, и наоборот.
+ * <p>
+ * Небольшие задачи (меньшая из сторон не больше порога) решаются точно венгерским алгоритмом.
+ * Большие задачи решаются параллельным аукционом с точностью eps на одно назначение:
+ * суммарный путь больше оптимального не более чем на {@code eps * min(роботов, целей)}.
+ * <p>
+ * После полного распределения аукционом {@link #reassign(RobotFleet, int[], int[], int[], int)}
+ * сохраняет цены аукциона и переназначает только роботов, затронутых изменёнными целями,
+ * поэтому замена нескольких целей обходится много дешевле полного решения. Позиции роботов
+ * при этом берутся текущие, а цены остаются от прошлого решения, поэтому после заметного
+ * перемещения роботов инкрементальный результат может уступать полному пересчёту.
+ * <p>
+ * Экземпляр не потокобезопасен: распределения должны выполняться одним потоком.
+ */
+public class AssignmentEngine {
+    /**
+     * Порог размера задачи по умолчанию, до которого используется точный венгерский алгоритм.
+     */
+    public static final int DEFAULT_EXACT_LIMIT = 256;
+
+    /**
+     * Точность аукциона по умолчанию: допустимый проигрыш на одно назначение в пикселях пути.
+     */
+    public static final double DEFAULT_EPSILON = 0.01;
+
+    private final ForkJoinPool pool;
+    private final int exactLimit;
+    private final double epsilon;
+
+    private AuctionSolver auction;
+    private boolean robotsBid;
+    private int robots;
+    private int targets;
+    private double[] robotX;
+    private double[] robotY;
+    private double[] targetX;
+    private double[] targetY;
+    private int[] assignment;
+
+    /**
+     * Создает распределитель на общем пуле fork/join с порогом и точностью по умолчанию.
+     */
+    public AssignmentEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_EXACT_LIMIT, DEFAULT_EPSILON);
+    }
+
+    /**
+     * Создает распределитель.
+     *
+     * @param pool       пул, в котором вычисляются ставки аукциона
+     * @param exactLimit наибольший размер меньшей стороны задачи, решаемой точно
+     * @param epsilon    точность аукциона на одно назначение
+     * @throws IllegalArgumentException если точность не положительна
+     */
+    public AssignmentEngine(ForkJoinPool pool, int exactLimit, double epsilon) {
+        if (!(epsilon > 0)) {
+            throw new IllegalArgumentException("epsilon must be positive");
+        }
+
+        this.pool = pool;
+        this.exactLimit = exactLimit;
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * Возвращает число ставок последнего аукциона или 0, если задача решалась точно.
+     *
+     * @return число ставок
+     */
+    public long getLastBids() {
+        return auction == null ? 0 : auction.getBids();
+    }
+
+    /**
+     * Распределяет цели между роботами флота заново.
+     *
+     * @param fleet    флот роботов
+     * @param targetXs позиции целей по оси X
+     * @param targetYs позиции целей по оси Y
+     * @return массив, в котором для каждого робота записан номер цели или -1
+     * @throws IllegalArgumentException если длины массивов позиций целей различаются
+     */
+    public int[] assign(RobotFleet fleet, int[] targetXs, int[] targetYs) {
+        if (targetXs.length != targetYs.length) {
+            throw new IllegalArgumentException("target coordinate arrays differ in length");
+        }
+
+        robots = fleet.size();
+        targets = targetXs.length;
+        robotX = new double[robots];
+        robotY = new double[robots];
+        targetX = new double[targets];
+        targetY = new double[targets];
+        readRobots(fleet);
+        for (int j = 0; j < targets; j++) {
+            targetX[j] = targetXs[j];
+            targetY[j] = targetYs[j];
+        }
+
+        robotsBid = robots <= targets;
+        if (Math.min(robots, targets) <= exactLimit) {
+            auction = null;
+            assignment = robotsBid
+                    ? HungarianSolver.solve(robotX, robotY, robots, targetX, targetY, targets)
+                    : HungarianSolver.solve(targetX, targetY, targets, robotX, robotY, robots);
+        } else {
+            auction = new AuctionSolver(pool);
+            assignment = robotsBid
+                    ? auction.solve(robotX, robotY, robots, targetX, targetY, targets, epsilon)
+                    : auction.solve(targetX, targetY, targets, robotX, robotY, robots, epsilon);
+        }
+
+        return robotAssignment();
+    }
+
+    /**
+     * Перераспределяет цели после изменения позиций нескольких из них. Если прошлое
+     * распределение решалось точно или число роботов и целей изменилось, задача решается заново.
+     *
+     * @param fleet          флот роботов
+     * @param targetXs       новые позиции всех целей по оси X
+     * @param targetYs       новые позиции всех целей по оси Y
+     * @param changedTargets номера изменённых целей
+     * @param changedCount   число изменённых целей
+     * @return массив, в котором для каждого робота записан номер цели или -1
+     */
+    public int[] reassign(RobotFleet fleet, int[] targetXs, int[] targetYs, int[] changedTargets, int changedCount) {
+        if (auction == null || fleet.size() != robots || targetXs.length != targets
+                || targetYs.length != targets) {
+            return assign(fleet, targetXs, targetYs);
+        }
+
+        readRobots(fleet);
+        for (int k = 0; k < changedCount; k++) {
+            int target = changedTargets[k];
+            targetX[target] = targetXs[target];
+            targetY[target] = targetYs[target];
+        }
+
+        assignment = robotsBid
+                ? auction.resolve(null, 0, changedTargets, changedCount, epsilon)
+                : auction.resolve(changedTargets, changedCount, null, 0, epsilon);
+        return robotAssignment();
+    }
+
+    /**
+     * Направляет роботов к назначенным им целям.
+     *
+     * @param fleet      флот роботов
+     * @param assignment массив, в котором для каждого робота записан номер цели или -1
+     * @param targetXs   позиции целей по оси X
+     * @param targetYs   позиции целей по оси Y
+     */
+    public static void apply(RobotFleet fleet, int[] assignment, int[] targetXs, int[] targetYs) {
+        for (int i = 0; i < assignment.length; i++) {
+            int target = assignment[i];
+            if (target >= 0) {
+                fleet.setTarget(i, targetXs[target], targetYs[target]);
+            }
+        }
+    }
+
+    private void readRobots(RobotFleet fleet) {
+        for (int i = 0; i < robots; i++) {
+            robotX[i] = fleet.getX(i);
+            robotY[i] = fleet.getY(i);
+        }
+    }
+
+    /**
+     * Переводит назначение решателя (строки - меньшая сторона задачи) в назначение роботов.
+     */
+    private int[] robotAssignment() {
+        if (robotsBid) {
+            return assignment.clone();
+        }
+
+        int[] result = new int[robots];
+        Arrays.fill(result, -1);
+        for (int target = 0; target < targets; target++) {
+            result[assignment[target]] = target;
+        }
+        return result;
+    }
+}
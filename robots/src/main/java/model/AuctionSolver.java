@@ -0,0 +1,668 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Класс AuctionSolver приближённо решает задачу о назначениях аукционным алгоритмом Берцекаса.
+ * Участники (persons) торгуются за объекты: каждый неназначенный участник выбирает объект
+ * с наименьшей суммой расстояния и цены и повышает его цену на разницу со вторым по выгоде
+ * объектом плюс eps. Результат отличается от оптимального не больше чем на число участников,
+ * умноженное на eps.
+ * <p>
+ * Торги идут по схеме Якоби: ставки всех неназначенных участников вычисляются параллельно
+ * в пуле fork/join, затем каждый объект достаётся участнику с наибольшей ставкой. Величина eps
+ * уменьшается по фазам (eps-scaling), а цены переносятся из фазы в фазу. Когда объектов больше,
+ * чем участников, после каждой фазы выполняется обратный аукцион, в котором подорожавшие
+ * свободные объекты сами предлагают себя участникам и дешевеют: без этого назначение
+ * не было бы оптимальным.
+ * <p>
+ * Чтобы ставка не перебирала все объекты, объекты (а для обратного аукциона - участники)
+ * разложены по равномерной сетке. Ставка просматривает кольца ячеек вокруг точки, пропуская
+ * ячейки, которые по расстоянию и границе цен ячейки не могут войти в две лучшие, и
+ * останавливается, когда этого не могут и все оставшиеся кольца.
+ * <p>
+ * Цены и назначение сохраняются между вызовами. После изменения небольшого числа участников
+ * или объектов {@link #resolve(int[], int, int[], int, double)} не повторяет торги, в которых
+ * освободившиеся участники долго перебивали бы друг друга малыми ставками, а достраивает
+ * назначение кратчайшими увеличивающими путями (как венгерский алгоритм), используя цены
+ * как потенциалы объектов. Экземпляр не потокобезопасен.
+ */
+final class AuctionSolver {
+    private static final double SCALING_FACTOR = 8;
+    private static final int BID_CHUNK = 64;
+    private static final int POINTS_PER_CELL = 32;
+
+    private final ForkJoinPool pool;
+
+    private double[] personX;
+    private double[] personY;
+    private int persons;
+    private double[] objectX;
+    private double[] objectY;
+    private int objects;
+
+    private double[] price;
+    private int[] owner;
+    private int[] assigned;
+
+    private int[] unassigned;
+    private int unassignedCount;
+    private int[] bidObject;
+    private double[] bidAmount;
+
+    private double[] bestBid;
+    private int[] bestBidder;
+    private int[] bidRound;
+    private int round;
+    private long bids;
+
+    private final CellGrid objectGrid = new CellGrid();
+    private double[] slotPrice;
+    private double[] cellMinPrice;
+    private double minPrice;
+
+    private final CellGrid personGrid = new CellGrid();
+    private double[] cellMaxProfit;
+    private double maxProfit;
+
+    AuctionSolver(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Возвращает число ставок (прямых, обратных и шагов поиска пути), сделанных при последнем решении.
+     *
+     * @return число ставок
+     */
+    long getBids() {
+        return bids;
+    }
+
+    /**
+     * Находит назначение участников объектам с нуля. Участников должно быть не больше, чем
+     * объектов. Массивы координат запоминаются (не копируются) для последующих вызовов
+     * {@link #resolve(int[], int, int[], int, double)}.
+     *
+     * @return массив, в котором для каждого участника записан номер объекта
+     */
+    int[] solve(double[] personX, double[] personY, int persons,
+                double[] objectX, double[] objectY, int objects, double epsilon) {
+        this.personX = personX;
+        this.personY = personY;
+        this.persons = persons;
+        this.objectX = objectX;
+        this.objectY = objectY;
+        this.objects = objects;
+
+        price = new double[objects];
+        owner = new int[objects];
+        assigned = new int[persons];
+        unassigned = new int[persons];
+        bidObject = new int[persons];
+        bidAmount = new double[persons];
+        bestBid = new double[objects];
+        bestBidder = new int[objects];
+        bidRound = new int[objects];
+        round = 0;
+        bids = 0;
+
+        double span = buildObjectGrid();
+
+        // фазы eps * 8^k, ..., eps * 8, eps; первая фаза - не крупнее восьмой части поля
+        double phaseEpsilon = epsilon;
+        while (phaseEpsilon * SCALING_FACTOR <= span / SCALING_FACTOR) {
+            phaseEpsilon *= SCALING_FACTOR;
+        }
+        while (true) {
+            Arrays.fill(owner, -1);
+            Arrays.fill(assigned, -1);
+            for (int i = 0; i < persons; i++) {
+                unassigned[i] = i;
+            }
+            unassignedCount = persons;
+
+            auction(phaseEpsilon);
+            reverseAuction(phaseEpsilon);
+
+            if (phaseEpsilon <= epsilon) {
+                break;
+            }
+            phaseEpsilon = Math.max(epsilon, phaseEpsilon / SCALING_FACTOR);
+        }
+
+        return assigned.clone();
+    }
+
+    /**
+     * Достраивает назначение после изменения координат части участников или объектов
+     * (координаты уже записаны в массивы, переданные в {@link #solve}). Изменённые участники
+     * и владельцы изменённых объектов теряют назначение; изменённым объектам назначается
+     * наименьшая цена, при которой они не выгоднее назначенным участникам их собственных
+     * объектов. Каждый освободившийся участник получает объект по кратчайшему увеличивающему
+     * пути, после чего цены пересчитываются так, чтобы назначение снова было eps-оптимальным.
+     *
+     * @return массив, в котором для каждого участника записан номер объекта
+     */
+    int[] resolve(int[] changedPersons, int changedPersonCount,
+                  int[] changedObjects, int changedObjectCount, double epsilon) {
+        bids = 0;
+        buildObjectGrid();
+
+        for (int k = 0; k < changedPersonCount; k++) {
+            release(changedPersons[k]);
+        }
+        for (int k = 0; k < changedObjectCount; k++) {
+            int object = changedObjects[k];
+            if (owner[object] >= 0) {
+                release(owner[object]);
+            }
+        }
+        for (int k = 0; k < changedObjectCount; k++) {
+            lowerPrice(changedObjects[k]);
+        }
+
+        double[] distance = new double[objects];
+        int[] previous = new int[objects];
+        boolean[] reached = new boolean[objects];
+        for (int i = 0; i < persons; i++) {
+            if (assigned[i] < 0) {
+                augment(i, distance, previous, reached);
+            }
+        }
+        reverseAuction(epsilon);
+
+        return assigned.clone();
+    }
+
+    private void release(int person) {
+        if (assigned[person] >= 0) {
+            owner[assigned[person]] = -1;
+            assigned[person] = -1;
+        }
+    }
+
+    /**
+     * Назначает изменённому объекту наименьшую цену, при которой ни одному назначенному
+     * участнику он не выгоднее собственного объекта.
+     */
+    private void lowerPrice(int object) {
+        double lowest = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < persons; i++) {
+            if (assigned[i] >= 0) {
+                lowest = Math.max(lowest, profit(i) - cost(i, object));
+            }
+        }
+        if (lowest > Double.NEGATIVE_INFINITY) {
+            setPrice(object, lowest);
+        }
+    }
+
+    /**
+     * Назначает участнику объект по кратчайшему увеличивающему пути (алгоритм Дейкстры).
+     * Приведённая стоимость ребра от участника к объекту - расстояние плюс цена объекта минус
+     * стоимость собственного объекта участника с его ценой; у назначенных рёбер она равна нулю.
+     */
+    private void augment(int start, double[] distance, int[] previous, boolean[] reached) {
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        Arrays.fill(reached, false);
+
+        int person = start;
+        double base = 0;
+        int free;
+        while (true) {
+            double own = person == start ? 0 : profit(person);
+            int next = -1;
+            for (int object = 0; object < objects; object++) {
+                if (reached[object]) {
+                    continue;
+                }
+                double candidate = base + cost(person, object) + price[object] - own;
+                if (candidate < distance[object]) {
+                    distance[object] = candidate;
+                    previous[object] = person;
+                }
+                if (next < 0 || distance[object] < distance[next]) {
+                    next = object;
+                }
+            }
+            bids++;
+
+            reached[next] = true;
+            base = distance[next];
+            if (owner[next] < 0) {
+                free = next;
+                break;
+            }
+            person = owner[next];
+        }
+
+        // объекты, до которых путь короче найденного, дорожают на разницу: назначенные рёбра
+        // остаются с нулевой приведённой стоимостью, остальные - с неотрицательной
+        for (int object = 0; object < objects; object++) {
+            if (reached[object]) {
+                setPrice(object, price[object] + base - distance[object]);
+            }
+        }
+
+        for (int object = free; ; ) {
+            int bidder = previous[object];
+            int released = assigned[bidder];
+            owner[object] = bidder;
+            assigned[bidder] = object;
+            if (bidder == start) {
+                break;
+            }
+            object = released;
+        }
+    }
+
+    private void auction(double epsilon) {
+        while (unassignedCount > 0) {
+            updateMinPrices();
+            if (unassignedCount <= BID_CHUNK) {
+                computeBids(0, unassignedCount, epsilon);
+            } else {
+                pool.invoke(new BidTask(0, unassignedCount, epsilon));
+            }
+            bids += unassignedCount;
+
+            round++;
+            for (int k = 0; k < unassignedCount; k++) {
+                int person = unassigned[k];
+                int object = bidObject[person];
+                if (bidRound[object] != round || bidAmount[person] > bestBid[object]) {
+                    bidRound[object] = round;
+                    bestBid[object] = bidAmount[person];
+                    bestBidder[object] = person;
+                }
+            }
+
+            int next = 0;
+            for (int k = 0; k < unassignedCount; k++) {
+                int person = unassigned[k];
+                int object = bidObject[person];
+                if (bestBidder[object] != person || bidRound[object] != round) {
+                    unassigned[next++] = person;
+                    continue;
+                }
+                // объект достаётся участнику, прежний владелец снова торгуется
+                bidRound[object] = round - 1;
+                int previous = owner[object];
+                if (previous >= 0) {
+                    assigned[previous] = -1;
+                    unassigned[next++] = previous;
+                }
+                owner[object] = person;
+                assigned[person] = object;
+                setPrice(object, bestBid[object]);
+            }
+            unassignedCount = next;
+        }
+    }
+
+    /**
+     * Пересчитывает наименьшие цены ячеек и всего поля, по которым ставки отбрасывают
+     * заведомо невыгодные ячейки.
+     */
+    private void updateMinPrices() {
+        minPrice = Double.POSITIVE_INFINITY;
+        for (int cell = 0; cell < cellMinPrice.length; cell++) {
+            double cellMin = Double.POSITIVE_INFINITY;
+            for (int slot = objectGrid.start[cell]; slot < objectGrid.start[cell + 1]; slot++) {
+                cellMin = Math.min(cellMin, slotPrice[slot]);
+            }
+            cellMinPrice[cell] = cellMin;
+            minPrice = Math.min(minPrice, cellMin);
+        }
+    }
+
+    private void computeBids(int from, int to, double epsilon) {
+        CellGrid grid = objectGrid;
+        int maxRing = Math.max(grid.columns, grid.rows);
+        for (int k = from; k < to; k++) {
+            int person = unassigned[k];
+            double x = personX[person];
+            double y = personY[person];
+            int column = grid.column(x);
+            int row = grid.row(y);
+
+            // ищутся два наименьших значения расстояния плюс цена
+            double best = Double.POSITIVE_INFINITY;
+            double second = Double.POSITIVE_INFINITY;
+            int bestObject = 0;
+            for (int ring = 0; ring <= maxRing; ring++) {
+                for (int cellRow = row - ring; cellRow <= row + ring; cellRow++) {
+                    if (cellRow < 0 || cellRow >= grid.rows) {
+                        continue;
+                    }
+                    double gapY = grid.gapY(cellRow, y);
+
+                    // в крайних рядах кольца просматриваются все ячейки, в остальных - две боковые
+                    int step = cellRow == row - ring || cellRow == row + ring ? 1 : 2 * ring;
+                    for (int cellColumn = column - ring; cellColumn <= column + ring; cellColumn += step) {
+                        if (cellColumn < 0 || cellColumn >= grid.columns) {
+                            continue;
+                        }
+
+                        int cell = cellRow * grid.columns + cellColumn;
+                        double reach = second - cellMinPrice[cell];
+                        if (reach <= 0) {
+                            continue;
+                        }
+                        double gapX = grid.gapX(cellColumn, x);
+                        if (gapX * gapX + gapY * gapY >= reach * reach) {
+                            continue;
+                        }
+
+                        for (int slot = grid.start[cell]; slot < grid.start[cell + 1]; slot++) {
+                            double diffX = grid.pointX[slot] - x;
+                            double diffY = grid.pointY[slot] - y;
+                            double value = Math.sqrt(diffX * diffX + diffY * diffY) + slotPrice[slot];
+                            if (value < best) {
+                                second = best;
+                                best = value;
+                                bestObject = grid.points[slot];
+                            } else if (value < second) {
+                                second = value;
+                            }
+                        }
+                    }
+                }
+
+                // объекты следующих колец дальше ring * cellSize и не дешевле minPrice
+                if (ring * grid.cellSize + minPrice >= second) {
+                    break;
+                }
+            }
+
+            double increment = second == Double.POSITIVE_INFINITY ? 0 : second - best;
+            bidObject[person] = bestObject;
+            bidAmount[person] = price[bestObject] + increment + epsilon;
+        }
+    }
+
+    /**
+     * Обратный аукцион: свободные объекты дороже наименьшей цены назначенных объектов по очереди
+     * предлагают себя участнику, которому они выгоднее всего относительно его собственного
+     * объекта, и дешевеют до второго по выгоде предложения; объект, от которого участник
+     * отказался, становится свободным и торгуется так же. Объекту, который никому не выгоден,
+     * назначается наименьшая цена назначенных объектов.
+     */
+    private void reverseAuction(double epsilon) {
+        if (persons == objects) {
+            return;
+        }
+
+        double floor = Double.POSITIVE_INFINITY;
+        int[] pending = new int[objects];
+        int pendingCount = 0;
+        for (int object = 0; object < objects; object++) {
+            if (owner[object] >= 0) {
+                floor = Math.min(floor, price[object]);
+            }
+        }
+        for (int object = 0; object < objects; object++) {
+            if (owner[object] < 0 && price[object] > floor) {
+                pending[pendingCount++] = object;
+            }
+        }
+        if (pendingCount == 0) {
+            return;
+        }
+
+        buildPersonGrid();
+        CellGrid grid = personGrid;
+        int maxRing = Math.max(grid.columns, grid.rows);
+        while (pendingCount > 0) {
+            int object = pending[--pendingCount];
+            double x = objectX[object];
+            double y = objectY[object];
+            int column = grid.column(x);
+            int row = grid.row(y);
+
+            // ищутся две наибольшие выгоды объекта для участника сверх его собственного объекта
+            double best = Double.NEGATIVE_INFINITY;
+            double second = Double.NEGATIVE_INFINITY;
+            int bestPerson = -1;
+            for (int ring = 0; ring <= maxRing; ring++) {
+                for (int cellRow = row - ring; cellRow <= row + ring; cellRow++) {
+                    if (cellRow < 0 || cellRow >= grid.rows) {
+                        continue;
+                    }
+                    double gapY = grid.gapY(cellRow, y);
+
+                    int step = cellRow == row - ring || cellRow == row + ring ? 1 : 2 * ring;
+                    for (int cellColumn = column - ring; cellColumn <= column + ring; cellColumn += step) {
+                        if (cellColumn < 0 || cellColumn >= grid.columns) {
+                            continue;
+                        }
+
+                        int cell = cellRow * grid.columns + cellColumn;
+                        double reach = cellMaxProfit[cell] - second;
+                        if (reach <= 0) {
+                            continue;
+                        }
+                        double gapX = grid.gapX(cellColumn, x);
+                        if (gapX * gapX + gapY * gapY >= reach * reach) {
+                            continue;
+                        }
+
+                        for (int slot = grid.start[cell]; slot < grid.start[cell + 1]; slot++) {
+                            int person = grid.points[slot];
+                            double diffX = grid.pointX[slot] - x;
+                            double diffY = grid.pointY[slot] - y;
+                            double value = profit(person) - Math.sqrt(diffX * diffX + diffY * diffY);
+                            if (value > best) {
+                                second = best;
+                                best = value;
+                                bestPerson = person;
+                            } else if (value > second) {
+                                second = value;
+                            }
+                        }
+                    }
+                }
+
+                // участники следующих колец дальше ring * cellSize, а их выгода не больше maxProfit
+                if (maxProfit - ring * grid.cellSize <= second) {
+                    break;
+                }
+            }
+            bids++;
+
+            if (floor >= best - epsilon) {
+                setPrice(object, floor);
+                continue;
+            }
+
+            setPrice(object, Math.max(floor, second - epsilon));
+            int released = assigned[bestPerson];
+            owner[released] = -1;
+            owner[object] = bestPerson;
+            assigned[bestPerson] = object;
+            if (price[released] > floor) {
+                pending[pendingCount++] = released;
+            }
+
+            // граница ячейки должна оставаться не меньше выгоды каждого её участника
+            double personProfit = profit(bestPerson);
+            int cell = grid.cellOf(personX[bestPerson], personY[bestPerson]);
+            cellMaxProfit[cell] = Math.max(cellMaxProfit[cell], personProfit);
+            maxProfit = Math.max(maxProfit, personProfit);
+        }
+    }
+
+    /**
+     * Возвращает расстояние назначенного участника до его объекта вместе с ценой объекта.
+     */
+    private double profit(int person) {
+        int own = assigned[person];
+        return cost(person, own) + price[own];
+    }
+
+    private void setPrice(int object, double value) {
+        price[object] = value;
+        slotPrice[objectGrid.slot[object]] = value;
+    }
+
+    private double cost(int person, int object) {
+        double diffX = objectX[object] - personX[person];
+        double diffY = objectY[object] - personY[person];
+        return Math.sqrt(diffX * diffX + diffY * diffY);
+    }
+
+    /**
+     * Раскладывает объекты по сетке и переносит их цены в порядок ячеек.
+     *
+     * @return диагональ прямоугольника, покрывающего объекты
+     */
+    private double buildObjectGrid() {
+        double span = objectGrid.build(objectX, objectY, objects);
+        if (slotPrice == null || slotPrice.length != objects) {
+            slotPrice = new double[objects];
+        }
+        for (int object = 0; object < objects; object++) {
+            slotPrice[objectGrid.slot[object]] = price[object];
+        }
+        cellMinPrice = new double[objectGrid.columns * objectGrid.rows];
+        return span;
+    }
+
+    /**
+     * Раскладывает участников по сетке и вычисляет границы сверху для выгоды участников ячеек.
+     */
+    private void buildPersonGrid() {
+        personGrid.build(personX, personY, persons);
+        cellMaxProfit = new double[personGrid.columns * personGrid.rows];
+        Arrays.fill(cellMaxProfit, Double.NEGATIVE_INFINITY);
+        maxProfit = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < persons; i++) {
+            int cell = personGrid.cellOf(personX[i], personY[i]);
+            double personProfit = profit(i);
+            cellMaxProfit[cell] = Math.max(cellMaxProfit[cell], personProfit);
+            maxProfit = Math.max(maxProfit, personProfit);
+        }
+    }
+
+    /**
+     * Равномерная сетка точек, хранящая точки каждой ячейки подряд, чтобы просмотр ячейки
+     * шёл по последовательной памяти. Точки за пределами сетки относятся к крайним ячейкам.
+     */
+    private static final class CellGrid {
+        double minX;
+        double minY;
+        double cellSize;
+        int columns;
+        int rows;
+        int[] start;
+        int[] points;
+        double[] pointX;
+        double[] pointY;
+        int[] slot;
+
+        /**
+         * Раскладывает точки по ячейкам подсчётом: сначала размеры ячеек, затем их начала
+         * и сами точки.
+         *
+         * @return диагональ прямоугольника, покрывающего точки
+         */
+        double build(double[] xs, double[] ys, int count) {
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            minX = Double.POSITIVE_INFINITY;
+            minY = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < count; i++) {
+                minX = Math.min(minX, xs[i]);
+                maxX = Math.max(maxX, xs[i]);
+                minY = Math.min(minY, ys[i]);
+                maxY = Math.max(maxY, ys[i]);
+            }
+
+            double width = Math.max(1, maxX - minX);
+            double height = Math.max(1, maxY - minY);
+            cellSize = Math.sqrt(width * height / Math.max(1, count / POINTS_PER_CELL));
+            columns = (int) (width / cellSize) + 1;
+            rows = (int) (height / cellSize) + 1;
+
+            int cells = columns * rows;
+            start = new int[cells + 1];
+            if (points == null || points.length != count) {
+                points = new int[count];
+                pointX = new double[count];
+                pointY = new double[count];
+                slot = new int[count];
+            }
+
+            for (int i = 0; i < count; i++) {
+                start[cellOf(xs[i], ys[i]) + 1]++;
+            }
+            for (int cell = 0; cell < cells; cell++) {
+                start[cell + 1] += start[cell];
+            }
+            int[] fill = Arrays.copyOf(start, cells);
+            for (int i = 0; i < count; i++) {
+                int position = fill[cellOf(xs[i], ys[i])]++;
+                points[position] = i;
+                pointX[position] = xs[i];
+                pointY[position] = ys[i];
+                slot[i] = position;
+            }
+
+            return count == 0 ? 0 : Math.hypot(maxX - minX, maxY - minY);
+        }
+
+        int column(double x) {
+            return Math.min(columns - 1, Math.max(0, (int) ((x - minX) / cellSize)));
+        }
+
+        int row(double y) {
+            return Math.min(rows - 1, Math.max(0, (int) ((y - minY) / cellSize)));
+        }
+
+        int cellOf(double x, double y) {
+            return row(y) * columns + column(x);
+        }
+
+        /**
+         * Возвращает расстояние по оси X от точки до столбца ячеек (0, если точка в столбце).
+         */
+        double gapX(int column, double x) {
+            return Math.max(0, Math.max(minX + column * cellSize - x, x - minX - (column + 1) * cellSize));
+        }
+
+        /**
+         * Возвращает расстояние по оси Y от точки до ряда ячеек (0, если точка в ряду).
+         */
+        double gapY(int row, double y) {
+            return Math.max(0, Math.max(minY + row * cellSize - y, y - minY - (row + 1) * cellSize));
+        }
+    }
+
+    /**
+     * Задача, вычисляющая ставки отрезка списка неназначенных участников.
+     */
+    private class BidTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+        private final double epsilon;
+
+        BidTask(int from, int to, double epsilon) {
+            this.from = from;
+            this.to = to;
+            this.epsilon = epsilon;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BID_CHUNK) {
+                computeBids(from, to, epsilon);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new BidTask(from, middle, epsilon), new BidTask(middle, to, epsilon));
+        }
+    }
+}
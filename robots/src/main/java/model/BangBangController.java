@@ -0,0 +1,105 @@
+package model;
+
+/**
+ * Класс BangBangController - исходное правило управления роботом: робот едет с постоянной
+ * скоростью {@link RobotFleet#maxVelocity}, а поворачивает всегда с наибольшей угловой
+ * скоростью {@link RobotFleet#maxAngularVelocity} - влево, если угол на цель меньше PI/2,
+ * иначе вправо (релейное управление).
+ */
+public class BangBangController implements MotionController {
+    /**
+     * Запас при оценке горизонта решения, покрывающий погрешность округления.
+     */
+    private static final double safetyFactor = 0.9;
+
+    @Override
+    public void command(double[] state, double targetX, double targetY) {
+        state[MotionIntegrator.VELOCITY] = RobotFleet.maxVelocity;
+        state[MotionIntegrator.ANGULAR_VELOCITY] = turnRate(state[MotionIntegrator.X], state[MotionIntegrator.Y],
+                state[MotionIntegrator.DIRECTION], targetX, targetY);
+    }
+
+    /**
+     * Роботам, стоящим у цели (ближе 0.5), записывается нулевая команда без вычисления угла
+     * на цель: интеграторы их не двигают, а большая часть флота обычно стоит у целей.
+     */
+    @Override
+    public void computeCommands(double[] xs, double[] ys, double[] directions, int[] targetXs, int[] targetYs,
+                                int from, int to, double[] velocities, double[] angularVelocities) {
+        for (int i = from; i < to; i++) {
+            double x = xs[i];
+            double y = ys[i];
+            int targetX = targetXs[i];
+            int targetY = targetYs[i];
+            if (RobotFleet.distance(targetX, targetY, x, y) < 0.5) {
+                velocities[i] = 0;
+                angularVelocities[i] = 0;
+                continue;
+            }
+
+            velocities[i] = RobotFleet.maxVelocity;
+            angularVelocities[i] = turnRate(x, y, directions[i], targetX, targetY);
+        }
+    }
+
+    /**
+     * Угол между направлением робота и направлением на цель меняется не быстрее, чем
+     * {@code velocity / distance + maxAngularVelocity}, поэтому пока он не успел дойти
+     * до границ решения (0 и PI/2), решение остаётся прежним. Оценка действует, пока робот
+     * проходит не больше половины расстояния до цели. Когда робот едет почти точно на цель
+     * и поворачивает то в одну, то в другую сторону, запас до границы и горизонт малы.
+     */
+    @Override
+    public double decisionHorizon(double x, double y, double direction, double targetX, double targetY) {
+        double distance = RobotFleet.distance(targetX, targetY, x, y);
+        if (distance <= 0) {
+            return 0;
+        }
+
+        double angle = RobotFleet.asNormalizedRadians(RobotFleet.angleTo(x, y, targetX, targetY) - direction);
+        double margin = decisionMargin(angle);
+
+        // пока робот проходит не больше половины расстояния, оно не меньше distance / 2
+        double maxTime = distance / (2 * RobotFleet.maxVelocity);
+        double maxRate = 2 * RobotFleet.maxVelocity / distance + RobotFleet.maxAngularVelocity;
+        return Math.min(maxTime, safetyFactor * margin / maxRate);
+    }
+
+    /**
+     * Правило поворота робота: если цель слева от направления робота (угол на цель меньше PI/2),
+     * робот поворачивает влево с наибольшей угловой скоростью, иначе вправо.
+     *
+     * @param x         позиция робота по оси X
+     * @param y         позиция робота по оси Y
+     * @param direction направление робота в радианах
+     * @param targetX   позиция цели по оси X
+     * @param targetY   позиция цели по оси Y
+     * @return угловая скорость робота
+     */
+    static double turnRate(double x, double y, double direction, double targetX, double targetY) {
+        double angle = RobotFleet.asNormalizedRadians(RobotFleet.angleTo(x, y, targetX, targetY) - direction);
+
+        double angularVelocity = 0;
+        if (angle < Math.PI / 2) {
+            angularVelocity = RobotFleet.maxAngularVelocity;
+        } else if (angle > Math.PI / 2) {
+            angularVelocity = -RobotFleet.maxAngularVelocity;
+        }
+        return RobotFleet.applyLimits(angularVelocity, -RobotFleet.maxAngularVelocity, RobotFleet.maxAngularVelocity);
+    }
+
+    /**
+     * Возвращает расстояние от угла на цель до ближайшей границы решения о повороте (0 и PI/2).
+     *
+     * @param angle угол на цель относительно направления робота, нормализованный к [0, 2*PI)
+     * @return расстояние до границы в радианах
+     */
+    private static double decisionMargin(double angle) {
+        return Math.min(Math.abs(angle - Math.PI / 2), Math.min(angle, 2 * Math.PI - angle));
+    }
+
+    @Override
+    public String toString() {
+        return "bang-bang";
+    }
+}
@@ -0,0 +1,434 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Класс CollisionDetector находит и разрешает столкновения роботов флота после шага модели.
+ * Корпус робота - эллипс, вытянутый вдоль направления робота (по умолчанию 30x10, как его
+ * рисует {@code GameVisualizer.drawRobot}).
+ * <p>
+ * Широкая фаза - sweep-and-prune по оси X внутри горизонтальных полос: плоскость делится
+ * на полосы не ниже корпуса, роботы каждой полосы хранятся в порядке левых границ их
+ * ограничивающих прямоугольников, и проход сравнивает робота только с роботами своей
+ * и соседней полосы, чьи прямоугольники перекрываются с ним по X. За такт роботы сдвигаются мало,
+ * поэтому порядок прошлого такта почти верен и восстанавливается сортировкой подсчётом по полосам
+ * и сортировкой вставками внутри полос почти за линейное время. Пары, прямоугольники которых
+ * пересекаются по обеим осям, - кандидаты.
+ * <p>
+ * Узкая фаза точно проверяет пересечение эллипсов: аффинное преобразование переводит корпус
+ * первого робота в единичный круг, после чего эллипсы пересекаются, если расстояние от центра
+ * круга до образа второго эллипса не больше единицы. Пересекающиеся роботы раздвигаются
+ * поровну вдоль линии центров, пока их проекции на эту линию не перестанут перекрываться.
+ * <p>
+ * Детектор хранит порядок роботов между тактами и используется для одного флота из потока шага модели.
+ */
+public class CollisionDetector {
+    private static final int ROOT_ITERATIONS = 64;
+
+    private final double semiMajor;
+    private final double semiMinor;
+
+    private int[] order = new int[0];
+    private int[] scratch = new int[0];
+    private int[] band = new int[0];
+    private int[] bandStart = new int[0];
+    private double[] minX = new double[0];
+    private double[] maxX = new double[0];
+    private double[] minY = new double[0];
+    private double[] maxY = new double[0];
+    private int sorted;
+    private int candidates;
+    private int hits;
+
+    private volatile int lastCandidatePairs;
+    private volatile int lastHits;
+    private volatile long totalCandidatePairs;
+    private volatile long totalHits;
+
+    /**
+     * Создает детектор для корпуса 30x10, которым рисуется робот.
+     */
+    public CollisionDetector() {
+        this(30, 10);
+    }
+
+    /**
+     * Создает детектор для эллиптического корпуса заданного размера.
+     *
+     * @param length длина корпуса вдоль направления робота
+     * @param width  ширина корпуса поперёк направления робота
+     * @throws IllegalArgumentException если размеры не положительны или ширина больше длины
+     */
+    public CollisionDetector(double length, double width) {
+        if (!(width > 0) || !(length >= width)) {
+            throw new IllegalArgumentException("expected length >= width > 0");
+        }
+
+        this.semiMajor = length / 2;
+        this.semiMinor = width / 2;
+    }
+
+    /**
+     * Возвращает число пар-кандидатов широкой фазы на последнем такте.
+     *
+     * @return число пар, прямоугольники которых пересекаются
+     */
+    public int getLastCandidatePairs() {
+        return lastCandidatePairs;
+    }
+
+    /**
+     * Возвращает число столкновений на последнем такте.
+     *
+     * @return число пар, корпуса которых пересекаются
+     */
+    public int getLastHits() {
+        return lastHits;
+    }
+
+    /**
+     * Возвращает число пар-кандидатов за все такты.
+     *
+     * @return суммарное число пар-кандидатов
+     */
+    public long getTotalCandidatePairs() {
+        return totalCandidatePairs;
+    }
+
+    /**
+     * Возвращает число столкновений за все такты.
+     *
+     * @return суммарное число столкновений
+     */
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    /**
+     * Находит пересекающиеся корпуса роботов флота и раздвигает их.
+     *
+     * @param fleet флот роботов
+     * @return число столкновений
+     */
+    public int resolve(RobotFleet fleet) {
+        int size = fleet.size();
+        ensureCapacity(fleet.capacity());
+        if (size == 0) {
+            lastCandidatePairs = 0;
+            lastHits = 0;
+            return 0;
+        }
+
+        double top = Double.POSITIVE_INFINITY;
+        double bottom = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            updateBounds(fleet, i);
+            top = Math.min(top, minY[i]);
+            bottom = Math.max(bottom, minY[i]);
+        }
+        for (int i = sorted; i < size; i++) {
+            order[i] = i;
+        }
+        sorted = size;
+
+        int bands = sortByBand(size, top, bottom);
+
+        candidates = 0;
+        hits = 0;
+        for (int b = 0; b < bands; b++) {
+            sweep(fleet, bandStart[b], bandStart[b + 1]);
+            if (b + 1 < bands) {
+                sweep(fleet, bandStart[b], bandStart[b + 1], bandStart[b + 1], bandStart[b + 2]);
+            }
+        }
+
+        lastCandidatePairs = candidates;
+        lastHits = hits;
+        totalCandidatePairs += candidates;
+        totalHits += hits;
+
+        return hits;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (order.length >= capacity) {
+            return;
+        }
+
+        int[] newOrder = new int[capacity];
+        System.arraycopy(order, 0, newOrder, 0, sorted);
+        order = newOrder;
+        scratch = new int[capacity];
+        band = new int[capacity];
+        minX = new double[capacity];
+        maxX = new double[capacity];
+        minY = new double[capacity];
+        maxY = new double[capacity];
+    }
+
+    /**
+     * Распределяет роботов по горизонтальным полосам по верхней границе прямоугольника
+     * (устойчивой сортировкой подсчётом, сохраняющей порядок прошлого такта) и упорядочивает
+     * каждую полосу по левой границе. Высота полосы не меньше высоты любого прямоугольника,
+     * поэтому пересекаться могут только прямоугольники одной или соседних полос.
+     *
+     * @return число полос
+     */
+    private int sortByBand(int size, double top, double bottom) {
+        double height = Math.max(2 * semiMajor, (bottom - top) / (2 * size));
+        int bands = (int) ((bottom - top) / height) + 1;
+
+        if (bandStart.length < bands + 2) {
+            bandStart = new int[bands + 2];
+        }
+        Arrays.fill(bandStart, 0, bands + 2, 0);
+
+        for (int i = 0; i < size; i++) {
+            band[i] = Math.min(bands - 1, (int) ((minY[i] - top) / height));
+            bandStart[band[i] + 1]++;
+        }
+        for (int b = 0; b < bands; b++) {
+            bandStart[b + 1] += bandStart[b];
+        }
+        for (int k = 0; k < size; k++) {
+            int index = order[k];
+            scratch[bandStart[band[index]]++] = index;
+        }
+        for (int b = bands; b > 0; b--) {
+            bandStart[b] = bandStart[b - 1];
+        }
+        bandStart[0] = 0;
+
+        int[] swap = order;
+        order = scratch;
+        scratch = swap;
+
+        for (int b = 0; b < bands; b++) {
+            sortByMinX(bandStart[b], bandStart[b + 1]);
+        }
+        return bands;
+    }
+
+    private void sortByMinX(int from, int to) {
+        for (int k = from + 1; k < to; k++) {
+            int index = order[k];
+            double key = minX[index];
+            int m = k - 1;
+            while (m >= from && minX[order[m]] > key) {
+                order[m + 1] = order[m];
+                m--;
+            }
+            order[m + 1] = index;
+        }
+    }
+
+    /**
+     * Проход sweep-and-prune по одной полосе.
+     */
+    private void sweep(RobotFleet fleet, int from, int to) {
+        for (int k = from; k < to; k++) {
+            int i = order[k];
+            for (int m = k + 1; m < to && minX[order[m]] <= maxX[i]; m++) {
+                check(fleet, i, order[m]);
+            }
+        }
+    }
+
+    /**
+     * Проход sweep-and-prune по двум соседним полосам: каждая пара из разных полос
+     * проверяется один раз, когда проходится робот с меньшей левой границей.
+     */
+    private void sweep(RobotFleet fleet, int fromA, int toA, int fromB, int toB) {
+        int a = fromA;
+        int b = fromB;
+
+        while (a < toA && b < toB) {
+            if (minX[order[a]] <= minX[order[b]]) {
+                int i = order[a++];
+                for (int m = b; m < toB && minX[order[m]] <= maxX[i]; m++) {
+                    check(fleet, i, order[m]);
+                }
+            } else {
+                int j = order[b++];
+                for (int m = a; m < toA && minX[order[m]] <= maxX[j]; m++) {
+                    check(fleet, order[m], j);
+                }
+            }
+        }
+    }
+
+    private void check(RobotFleet fleet, int i, int j) {
+        if (minY[j] > maxY[i] || minY[i] > maxY[j]) {
+            return;
+        }
+
+        candidates++;
+        if (overlaps(fleet, i, j)) {
+            hits++;
+            separate(fleet, i, j);
+        }
+    }
+
+    /**
+     * Вычисляет ограничивающий прямоугольник повёрнутого эллипса.
+     */
+    private void updateBounds(RobotFleet fleet, int index) {
+        double cos = Math.cos(fleet.direction[index]);
+        double sin = Math.sin(fleet.direction[index]);
+        double a = semiMajor;
+        double b = semiMinor;
+
+        double halfWidth = Math.sqrt(a * a * cos * cos + b * b * sin * sin);
+        double halfHeight = Math.sqrt(a * a * sin * sin + b * b * cos * cos);
+
+        minX[index] = fleet.positionX[index] - halfWidth;
+        maxX[index] = fleet.positionX[index] + halfWidth;
+        minY[index] = fleet.positionY[index] - halfHeight;
+        maxY[index] = fleet.positionY[index] + halfHeight;
+    }
+
+    /**
+     * Проверяет, пересекаются ли корпуса двух роботов.
+     */
+    private boolean overlaps(RobotFleet fleet, int i, int j) {
+        double a = semiMajor;
+        double b = semiMinor;
+
+        double centerX = fleet.positionX[j] - fleet.positionX[i];
+        double centerY = fleet.positionY[j] - fleet.positionY[i];
+        double centerSquared = centerX * centerX + centerY * centerY;
+        if (centerSquared <= 4 * b * b) {
+            return true;
+        }
+        if (centerSquared > 4 * a * a) {
+            return false;
+        }
+
+        // перевод в систему, где корпус робота i - единичный круг с центром в начале координат
+        double cos1 = Math.cos(fleet.direction[i]);
+        double sin1 = Math.sin(fleet.direction[i]);
+        double cx = (cos1 * centerX + sin1 * centerY) / a;
+        double cy = (-sin1 * centerX + cos1 * centerY) / b;
+
+        double phi = fleet.direction[j] - fleet.direction[i];
+        double c = Math.cos(phi);
+        double s = Math.sin(phi);
+        double p = 1 / (a * a);
+        double q = 1 / (b * b);
+        double m11 = a * a * (p * c * c + q * s * s);
+        double m22 = b * b * (p * s * s + q * c * c);
+        double m12 = a * b * (p - q) * c * s;
+
+        // начало координат внутри образа корпуса робота j
+        if (m11 * cx * cx + 2 * m12 * cx * cy + m22 * cy * cy <= 1) {
+            return true;
+        }
+
+        double mean = (m11 + m22) / 2;
+        double spread = Math.sqrt((m11 - m22) * (m11 - m22) / 4 + m12 * m12);
+        double major = 1 / Math.sqrt(mean - spread);
+        double minor = 1 / Math.sqrt(mean + spread);
+
+        double psi = 0.5 * Math.atan2(2 * m12, m11 - m22);
+        double cosPsi = Math.cos(psi);
+        double sinPsi = Math.sin(psi);
+        double alongMajor = Math.abs(-sinPsi * -cx + cosPsi * -cy);
+        double alongMinor = Math.abs(cosPsi * -cx + sinPsi * -cy);
+
+        return distanceToEllipse(major, minor, alongMajor, alongMinor) <= 1;
+    }
+
+    /**
+     * Вычисляет расстояние от точки (y0, y1) первой четверти, лежащей вне эллипса
+     * с полуосями e0 >= e1, до этого эллипса (метод Эберли с бисекцией).
+     */
+    private static double distanceToEllipse(double e0, double e1, double y0, double y1) {
+        if (y1 > 0) {
+            if (y0 > 0) {
+                double z0 = y0 / e0;
+                double z1 = y1 / e1;
+                double g = z0 * z0 + z1 * z1 - 1;
+                if (g == 0) {
+                    return 0;
+                }
+
+                double r0 = (e0 / e1) * (e0 / e1);
+                double root = ellipseRoot(r0, z0, z1, g);
+                double x0 = r0 * y0 / (root + r0);
+                double x1 = y1 / (root + 1);
+                return Math.hypot(x0 - y0, x1 - y1);
+            }
+            return Math.abs(y1 - e1);
+        }
+
+        double numerator = e0 * y0;
+        double denominator = e0 * e0 - e1 * e1;
+        if (numerator < denominator) {
+            double ratio = numerator / denominator;
+            double x0 = e0 * ratio;
+            double x1 = e1 * Math.sqrt(1 - ratio * ratio);
+            return Math.hypot(x0 - y0, x1);
+        }
+        return Math.abs(y0 - e0);
+    }
+
+    private static double ellipseRoot(double r0, double z0, double z1, double g) {
+        double n0 = r0 * z0;
+        double s0 = z1 - 1;
+        double s1 = g < 0 ? 0 : Math.hypot(n0, z1) - 1;
+        double s = 0;
+
+        for (int i = 0; i < ROOT_ITERATIONS; i++) {
+            s = (s0 + s1) / 2;
+            if (s == s0 || s == s1) {
+                break;
+            }
+            double ratio0 = n0 / (s + r0);
+            double ratio1 = z1 / (s + 1);
+            g = ratio0 * ratio0 + ratio1 * ratio1 - 1;
+            if (g > 0) {
+                s0 = s;
+            } else if (g < 0) {
+                s1 = s;
+            } else {
+                break;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Раздвигает двух роботов вдоль линии центров так, чтобы их проекции на неё не перекрывались.
+     */
+    private void separate(RobotFleet fleet, int i, int j) {
+        double centerX = fleet.positionX[j] - fleet.positionX[i];
+        double centerY = fleet.positionY[j] - fleet.positionY[i];
+        double distance = Math.hypot(centerX, centerY);
+
+        double ux = 1;
+        double uy = 0;
+        if (distance > 0) {
+            ux = centerX / distance;
+            uy = centerY / distance;
+        }
+
+        double depth = supportRadius(fleet.direction[i], ux, uy)
+                + supportRadius(fleet.direction[j], ux, uy) - distance;
+        if (!(depth > 0)) {
+            return;
+        }
+
+        double push = depth / 2 + Math.ulp(distance + depth);
+        fleet.displace(i, -ux * push, -uy * push);
+        fleet.displace(j, ux * push, uy * push);
+    }
+
+    /**
+     * Возвращает половину ширины проекции корпуса с заданным направлением на ось (ux, uy).
+     */
+    private double supportRadius(double direction, double ux, double uy) {
+        double along = ux * Math.cos(direction) + uy * Math.sin(direction);
+        double across = -ux * Math.sin(direction) + uy * Math.cos(direction);
+        return Math.sqrt(semiMajor * semiMajor * along * along + semiMinor * semiMinor * across * across);
+    }
+}
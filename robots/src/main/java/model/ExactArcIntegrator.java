@@ -0,0 +1,49 @@
+package model;
+
+/**
+ * Класс ExactArcIntegrator - исходная кинематика робота: команда контроллера берётся
+ * один раз в начале шага, после чего робот едет по дуге окружности (или по прямой)
+ * в замкнутой форме. Для постоянной команды результат точен при любой длительности шага,
+ * но команда не пересматривается внутри шага, поэтому с ростом длительности растёт ошибка
+ * относительно движения с непрерывным управлением.
+ */
+public class ExactArcIntegrator implements MotionIntegrator {
+    @Override
+    public boolean integrate(double[] state, double targetX, double targetY, double duration,
+                             MotionController controller) {
+        double robotX = state[X];
+        double robotY = state[Y];
+        double robotDirection = state[DIRECTION];
+
+        if (RobotFleet.distance(targetX, targetY, robotX, robotY) < 0.5) {
+            return false;
+        }
+
+        double velocity = state[VELOCITY];
+        double angularVelocity = state[ANGULAR_VELOCITY];
+
+        double newX = robotX + velocity / angularVelocity *
+                (Math.sin(robotDirection + angularVelocity * duration) -
+                        Math.sin(robotDirection));
+        if (!Double.isFinite(newX)) {
+            newX = robotX + velocity * duration * Math.cos(robotDirection);
+        }
+        double newY = robotY - velocity / angularVelocity *
+                (Math.cos(robotDirection + angularVelocity * duration) -
+                        Math.cos(robotDirection));
+        if (!Double.isFinite(newY)) {
+            newY = robotY + velocity * duration * Math.sin(robotDirection);
+        }
+
+        state[X] = newX;
+        state[Y] = newY;
+        state[DIRECTION] = RobotFleet.asNormalizedRadians(robotDirection + angularVelocity * duration);
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "exact-arc";
+    }
+}
@@ -0,0 +1,92 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Класс HungarianSolver точно решает задачу о назначениях венгерским алгоритмом
+ * (вариант с потенциалами за O(n^2 * m)). Стоимость назначения строки столбцу - евклидово
+ * расстояние между их точками, поэтому найденное назначение минимизирует суммарный путь.
+ */
+final class HungarianSolver {
+    private HungarianSolver() {
+    }
+
+    /**
+     * Находит назначение строк столбцам с наименьшей суммарной стоимостью.
+     * Строк должно быть не больше, чем столбцов; каждой строке назначается свой столбец.
+     *
+     * @param rowX    позиции строк по оси X
+     * @param rowY    позиции строк по оси Y
+     * @param rows    число строк
+     * @param columnX позиции столбцов по оси X
+     * @param columnY позиции столбцов по оси Y
+     * @param columns число столбцов
+     * @return массив, в котором для каждой строки записан номер назначенного столбца
+     */
+    static int[] solve(double[] rowX, double[] rowY, int rows,
+                       double[] columnX, double[] columnY, int columns) {
+        double[] u = new double[rows + 1];
+        double[] v = new double[columns + 1];
+        int[] match = new int[columns + 1];
+        int[] way = new int[columns + 1];
+        double[] minValue = new double[columns + 1];
+        boolean[] used = new boolean[columns + 1];
+
+        for (int row = 1; row <= rows; row++) {
+            match[0] = row;
+            int column0 = 0;
+            Arrays.fill(minValue, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+
+            do {
+                used[column0] = true;
+                int row0 = match[column0];
+                double delta = Double.POSITIVE_INFINITY;
+                int column1 = 0;
+
+                double x = rowX[row0 - 1];
+                double y = rowY[row0 - 1];
+                for (int column = 1; column <= columns; column++) {
+                    if (used[column]) {
+                        continue;
+                    }
+                    double diffX = columnX[column - 1] - x;
+                    double diffY = columnY[column - 1] - y;
+                    double current = Math.sqrt(diffX * diffX + diffY * diffY) - u[row0] - v[column];
+                    if (current < minValue[column]) {
+                        minValue[column] = current;
+                        way[column] = column0;
+                    }
+                    if (minValue[column] < delta) {
+                        delta = minValue[column];
+                        column1 = column;
+                    }
+                }
+
+                for (int column = 0; column <= columns; column++) {
+                    if (used[column]) {
+                        u[match[column]] += delta;
+                        v[column] -= delta;
+                    } else {
+                        minValue[column] -= delta;
+                    }
+                }
+                column0 = column1;
+            } while (match[column0] != 0);
+
+            do {
+                int column1 = way[column0];
+                match[column0] = match[column1];
+                column0 = column1;
+            } while (column0 != 0);
+        }
+
+        int[] assignment = new int[rows];
+        for (int column = 1; column <= columns; column++) {
+            if (match[column] != 0) {
+                assignment[match[column] - 1] = column - 1;
+            }
+        }
+        return assignment;
+    }
+}
@@ -0,0 +1,110 @@
+package model;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Класс ModelChangeChannel - канал оповещений об изменениях модели.
+ * <p>
+ * Модель лишь отмечает произошедшие изменения флагами с помощью {@link #markChanged(int)},
+ * что стоит одной атомарной операции и не зависит от числа подписчиков. Накопленные флаги
+ * рассылаются подписчикам вызовом {@link #flush()}, который выполняется один раз за кадр.
+ * Каждый подписчик получает оповещение на выбранном им исполнителе (например, в потоке EDT);
+ * если предыдущее оповещение ещё не обработано, новые флаги добавляются к нему,
+ * и в очередь исполнителя ничего не ставится.
+ */
+public class ModelChangeChannel {
+    /**
+     * Изменилась позиция или направление хотя бы одного робота.
+     */
+    public static final int ROBOT_MOVED = 1;
+    /**
+     * Изменилась цель хотя бы одного робота.
+     */
+    public static final int TARGET_CHANGED = 1 << 1;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Отмечает изменения модели. Подписчики узнают о них при следующем вызове {@link #flush()}.
+     *
+     * @param changes набор флагов изменений
+     */
+    public void markChanged(int changes) {
+        int current = pending.get();
+        while ((current & changes) != changes) {
+            if (pending.compareAndSet(current, current | changes)) {
+                return;
+            }
+            current = pending.get();
+        }
+    }
+
+    /**
+     * Рассылает накопленные изменения всем подписчикам. Если изменений не было, ничего не делает.
+     */
+    public void flush() {
+        int changes = pending.getAndSet(0);
+        if (changes == 0) {
+            return;
+        }
+
+        for (Subscription subscription : subscriptions) {
+            subscription.deliver(changes);
+        }
+    }
+
+    /**
+     * Подписывает слушателя на изменения модели.
+     *
+     * @param listener слушатель
+     * @param executor исполнитель, на котором вызывается слушатель
+     */
+    public void subscribe(ModelChangeListener listener, Executor executor) {
+        subscriptions.add(new Subscription(listener, executor));
+    }
+
+    /**
+     * Отписывает слушателя от изменений модели.
+     *
+     * @param listener слушатель
+     */
+    public void unsubscribe(ModelChangeListener listener) {
+        subscriptions.removeIf(subscription -> subscription.listener == listener);
+    }
+
+    /**
+     * Подписка одного слушателя со своими накопленными, но ещё не доставленными изменениями.
+     */
+    private static class Subscription {
+        private final ModelChangeListener listener;
+        private final Executor executor;
+        private final AtomicInteger undelivered = new AtomicInteger();
+        private final Runnable delivery = this::run;
+
+        Subscription(ModelChangeListener listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        void deliver(int changes) {
+            int previous;
+            do {
+                previous = undelivered.get();
+            } while (!undelivered.compareAndSet(previous, previous | changes));
+
+            if (previous == 0) {
+                executor.execute(delivery);
+            }
+        }
+
+        private void run() {
+            int changes = undelivered.getAndSet(0);
+            if (changes != 0) {
+                listener.onModelChanged(changes);
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package model;
+
+/**
+ * Интерфейс подписчика на изменения модели роботов.
+ */
+public interface ModelChangeListener {
+    /**
+     * Вызывается на исполнителе подписчика, когда модель изменилась.
+     * Несколько изменений, произошедших между оповещениями, объединяются в одно.
+     *
+     * @param changes набор флагов изменений, например {@link ModelChangeChannel#ROBOT_MOVED}
+     */
+    void onModelChanged(int changes);
+}
@@ -1,124 +1,191 @@
 package model;
 
 import java.awt.*;
-import java.util.Observable;
 
 /**
  * Основной класс модели робота, который представляет робота и его перемещение к цели.
- * Реализует интерфейс Observer, чтобы следить за изменениями позиции цели и оповещать об этом наблюдателей.
+ * <p>
+ * Состояние робота хранится во флоте {@link RobotFleet}, а ModelRobot является представлением
+ * одного робота флота с заданным индексом. Об изменениях позиции робота и цели оповещает
+ * канал флота {@link #getChanges()}.
  */
-public class ModelRobot extends Observable {
-    private volatile double m_robotPositionX = 100;
-    private volatile double m_robotPositionY = 100;
-    private volatile double m_robotDirection = 0;
+public class ModelRobot {
+    private final RobotFleet fleet;
+    private final int index;
+    private volatile RoutePlanner routePlanner;
 
-    private volatile int m_targetPositionX = 150;
-    private volatile int m_targetPositionY = 100;
+    /**
+     * Создает робота в отдельном флоте из одного робота с начальной позицией по умолчанию.
+     */
+    public ModelRobot() {
+        this(createSingleRobotFleet(), 0);
+    }
 
-    private static final double maxVelocity = 0.1;
-    private static final double maxAngularVelocity = 0.001;
+    /**
+     * Создает представление робота с заданным индексом во флоте.
+     *
+     * @param fleet флот, в котором хранится состояние робота
+     * @param index индекс робота во флоте
+     */
+    public ModelRobot(RobotFleet fleet, int index) {
+        this.fleet = fleet;
+        this.index = index;
+    }
 
-    public static final String key_robot_pos_changed = "robot position changed";
-    public static final String key_target_pos_changed = "target position changed";
+    private static RobotFleet createSingleRobotFleet() {
+        RobotFleet fleet = new RobotFleet(1);
+        fleet.addRobot(100, 100, 0, 150, 100);
+        return fleet;
+    }
 
     /**
-     * Устанавливает новую позицию цели.
+     * Возвращает флот, в котором хранится состояние робота.
+     *
+     * @return флот роботов
+     */
+    public RobotFleet getFleet() {
+        return fleet;
+    }
+
+    /**
+     * Возвращает канал оповещений об изменениях робота и его цели.
+     *
+     * @return канал оповещений флота
+     */
+    public ModelChangeChannel getChanges() {
+        return fleet.getChanges();
+    }
+
+    /**
+     * Возвращает индекс робота во флоте.
+     *
+     * @return индекс робота
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Возвращает планировщик маршрутов робота.
+     *
+     * @return планировщик маршрутов или null, если робот едет к цели напрямую
+     */
+    public RoutePlanner getRoutePlanner() {
+        return routePlanner;
+    }
+
+    /**
+     * Устанавливает планировщик маршрутов: после этого новая цель робота объезжается
+     * по маршруту в обход препятствий карты планировщика.
+     *
+     * @param routePlanner планировщик маршрутов или null, чтобы робот ехал к цели напрямую
+     */
+    public void setRoutePlanner(RoutePlanner routePlanner) {
+        this.routePlanner = routePlanner;
+    }
+
+    /**
+     * Устанавливает новую позицию цели. Если задан планировщик маршрутов, маршрут к цели
+     * строится в фоне, и робот поедет по нему, когда он будет готов.
      *
      * @param p новая позиция цели
      */
     public void setTargetPosition(Point p)
     {
-        m_targetPositionX = p.x;
-        m_targetPositionY = p.y;
+        setTargetPosition(p.x, p.y);
+    }
 
-        setChanged();
-        notifyObservers();
-        clearChanged();
+    /**
+     * Устанавливает новую позицию цели, не создавая объектов.
+     *
+     * @param x позиция цели по оси X
+     * @param y позиция цели по оси Y
+     * @see #setTargetPosition(Point)
+     */
+    public void setTargetPosition(int x, int y) {
+        RoutePlanner planner = routePlanner;
+        if (planner != null) {
+            planner.planRoute(index, x, y);
+        } else {
+            fleet.setTarget(index, x, y);
+        }
     }
 
     /**
-     * Возвращает текущую позицию точки по оси X.
+     * Добавляет точки в конец очереди маршрута робота: робот объедет их по порядку
+     * после текущей цели. Подписчики получают одно оповещение на весь вызов.
      *
-     * @return текущая позиция точки по оси X
+     * @param xs позиции точек по оси X
+     * @param ys позиции точек по оси Y той же длины
+     * @throws IllegalArgumentException если длины массивов различаются
      */
-    public int getTargetX() {
-        return m_targetPositionX;
+    public void enqueueWaypoints(int[] xs, int[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("xs and ys must have the same length");
+        }
+        fleet.enqueueWaypoints(index, xs, ys, 0, xs.length);
     }
 
     /**
-     * Возвращает текущую позицию точки по оси Y.
+     * Добавляет одну точку в конец очереди маршрута робота.
      *
-     * @return текущая позиция точки по оси Y
+     * @param x позиция точки по оси X
+     * @param y позиция точки по оси Y
      */
-    public int getTargetY() {
-        return m_targetPositionY;
+    public void enqueueWaypoint(int x, int y) {
+        fleet.enqueueWaypoint(index, x, y);
     }
 
-    private static double distance(double x1, double y1, double x2, double y2)
-    {
-        double diffX = x1 - x2;
-        double diffY = y1 - y2;
-        return Math.sqrt(diffX * diffX + diffY * diffY);
+    /**
+     * Очищает очередь маршрута робота; робот продолжает ехать к текущей цели.
+     */
+    public void clearWaypoints() {
+        fleet.clearWaypoints(index);
     }
 
-    private static double angleTo(double fromX, double fromY, double toX, double toY)
-    {
-        double diffX = toX - fromX;
-        double diffY = toY - fromY;
+    /**
+     * Возвращает число точек в очереди маршрута робота, не считая текущей цели.
+     *
+     * @return число точек в очереди
+     */
+    public int getWaypointCount() {
+        return fleet.getWaypointCount(index);
+    }
 
-        return asNormalizedRadians(Math.atan2(diffY, diffX));
+    /**
+     * Возвращает текущую позицию точки по оси X.
+     *
+     * @return текущая позиция точки по оси X
+     */
+    public int getTargetX() {
+        return fleet.getTargetX(index);
     }
 
-    private static double applyLimits(double value, double min, double max)
-    {
-        if (value < min)
-            return min;
-        if (value > max)
-            return max;
-        return value;
+    /**
+     * Возвращает текущую позицию точки по оси Y.
+     *
+     * @return текущая позиция точки по оси Y
+     */
+    public int getTargetY() {
+        return fleet.getTargetY(index);
     }
 
     public void moveRobot(double m_targetPositionX, double m_targetPositionY, double duration)
     {
-        double distance = distance(m_targetPositionX, m_targetPositionY,
-                m_robotPositionX, m_robotPositionY);
-        if (distance < 0.5)
-        {
-            return;
-        }
-        double velocity = maxVelocity;
-        double angleToTarget = angleTo(m_robotPositionX, m_robotPositionY, m_targetPositionX, m_targetPositionY);
-        double angularVelocity = 0;
-        double angle = asNormalizedRadians(angleToTarget - m_robotDirection);
-
-        if (angle < Math.PI / 2) {
-            angularVelocity = maxAngularVelocity;
-        } else if (angle > Math.PI / 2) {
-            angularVelocity = -maxAngularVelocity;
-        }
-        velocity = applyLimits(velocity, 0, maxVelocity);
-        angularVelocity = applyLimits(angularVelocity, -maxAngularVelocity, maxAngularVelocity);
-        double newX = m_robotPositionX + velocity / angularVelocity *
-                (Math.sin(m_robotDirection  + angularVelocity * duration) -
-                        Math.sin(m_robotDirection));
-        if (!Double.isFinite(newX))
+        if (fleet.moveRobot(index, m_targetPositionX, m_targetPositionY, duration))
         {
-            newX = m_robotPositionX + velocity * duration * Math.cos(m_robotDirection);
+            fleet.getChanges().markChanged(ModelChangeChannel.ROBOT_MOVED);
         }
-        double newY = m_robotPositionY - velocity / angularVelocity *
-                (Math.cos(m_robotDirection  + angularVelocity * duration) -
-                        Math.cos(m_robotDirection));
-        if (!Double.isFinite(newY))
-        {
-            newY = m_robotPositionY + velocity * duration * Math.sin(m_robotDirection);
-        }
-        m_robotPositionX = newX;
-        m_robotPositionY = newY;
-        m_robotDirection = asNormalizedRadians(m_robotDirection + angularVelocity * duration);
+    }
 
-        setChanged();
-        notifyObservers(key_robot_pos_changed);
-        clearChanged();
+    /**
+     * Читает согласованный снимок позиции, направления и цели робота.
+     *
+     * @param into объект, в который записывается снимок
+     * @return переданный объект со снимком
+     */
+    public RobotState readState(RobotState into) {
+        return fleet.readState(index, into);
     }
 
     /**
@@ -127,7 +194,7 @@ public class ModelRobot extends Observable {
      * @return текущая позиция робота по оси X
      */
     public double getRobotX() {
-        return m_robotPositionX;
+        return fleet.getX(index);
     }
 
     /**
@@ -136,7 +203,7 @@ public class ModelRobot extends Observable {
      * @return текущая позиция робота по оси Y
      */
     public double getRobotY() {
-        return m_robotPositionY;
+        return fleet.getY(index);
     }
 
     /**
@@ -145,20 +212,7 @@ public class ModelRobot extends Observable {
      * @return текущий угол направления робота в радианах
      */
     public double getDirection() {
-        return m_robotDirection;
-    }
-
-    private static double asNormalizedRadians(double angle)
-    {
-        while (angle < 0)
-        {
-            angle += 2*Math.PI;
-        }
-        while (angle >= 2*Math.PI)
-        {
-            angle -= 2*Math.PI;
-        }
-        return angle;
+        return fleet.getDirection(index);
     }
 
-}
\ No newline at end of file
+}
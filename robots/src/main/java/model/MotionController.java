@@ -0,0 +1,77 @@
+package model;
+
+/**
+ * Интерфейс MotionController - правило управления роботом: по позиции, направлению робота
+ * и позиции цели выбирает команду, то есть линейную и угловую скорость. Интегратор
+ * {@link MotionIntegrator} продвигает робота по этой команде и не зависит от правила.
+ * <p>
+ * Флот вычисляет команды сразу для отрезка роботов методом
+ * {@link #computeCommands(double[], double[], double[], int[], int[], int, int, double[], double[])},
+ * читая столбцы своих массивов состояния, поэтому на отрезок приходится один виртуальный
+ * вызов, а не по вызову на робота. Для пересмотра команды внутри шага интеграторы вызывают
+ * {@link #command(double[], double, double)} для одного робота.
+ * <p>
+ * Ускоренная перемотка {@link RobotFleet#fastForward(long, double)} объединяет шаги, пока
+ * команда заведомо не меняется; этот срок сообщает {@link #decisionHorizon(double, double, double, double, double)}.
+ * Команды не должны превышать по модулю {@link RobotFleet#maxVelocity} и
+ * {@link RobotFleet#maxAngularVelocity}: на этих пределах основаны оценки перемотки и планировщика
+ * маршрутов. Реализации не должны хранить изменяемое состояние между вызовами: один контроллер
+ * используется одновременно несколькими потоками шага.
+ */
+public interface MotionController {
+    /**
+     * Вычисляет команду для одного робота.
+     *
+     * @param state   массив состояния {@link MotionIntegrator}: по позиции и направлению
+     *                записываются элементы {@link MotionIntegrator#VELOCITY}
+     *                и {@link MotionIntegrator#ANGULAR_VELOCITY}
+     * @param targetX позиция цели по оси X
+     * @param targetY позиция цели по оси Y
+     */
+    void command(double[] state, double targetX, double targetY);
+
+    /**
+     * Вычисляет команды для роботов с индексами из полуинтервала [from, to).
+     * Реализация по умолчанию вызывает {@link #command(double[], double, double)} для каждого
+     * робота; реализации, которым важна скорость, вычисляют команды в одном цикле.
+     *
+     * @param xs                позиции роботов по оси X
+     * @param ys                позиции роботов по оси Y
+     * @param directions        направления роботов в радианах
+     * @param targetXs          позиции целей по оси X
+     * @param targetYs          позиции целей по оси Y
+     * @param from              индекс первого робота (включительно)
+     * @param to                индекс последнего робота (не включительно)
+     * @param velocities        массив, в который записываются линейные скорости
+     * @param angularVelocities массив, в который записываются угловые скорости
+     */
+    default void computeCommands(double[] xs, double[] ys, double[] directions, int[] targetXs, int[] targetYs,
+                                 int from, int to, double[] velocities, double[] angularVelocities) {
+        double[] state = new double[MotionIntegrator.STATE_SIZE];
+        for (int i = from; i < to; i++) {
+            state[MotionIntegrator.X] = xs[i];
+            state[MotionIntegrator.Y] = ys[i];
+            state[MotionIntegrator.DIRECTION] = directions[i];
+            command(state, targetXs[i], targetYs[i]);
+            velocities[i] = state[MotionIntegrator.VELOCITY];
+            angularVelocities[i] = state[MotionIntegrator.ANGULAR_VELOCITY];
+        }
+    }
+
+    /**
+     * Оценивает горизонт решения: время, в течение которого робот, движущийся по текущей
+     * команде, гарантированно получает ту же команду. На этом времени движение совпадает
+     * с дугой {@link ExactArcIntegrator}, и перемотка проходит его одним шагом. Реализация
+     * по умолчанию возвращает 0: шаги не объединяются.
+     *
+     * @param x         позиция робота по оси X
+     * @param y         позиция робота по оси Y
+     * @param direction направление робота в радианах
+     * @param targetX   позиция цели по оси X
+     * @param targetY   позиция цели по оси Y
+     * @return время, не меньше 0
+     */
+    default double decisionHorizon(double x, double y, double direction, double targetX, double targetY) {
+        return 0;
+    }
+}
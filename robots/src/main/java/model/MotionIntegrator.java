@@ -0,0 +1,60 @@
+package model;
+
+/**
+ * Интерфейс MotionIntegrator - способ продвижения одного робота к цели на заданное время.
+ * Линейную и угловую скорость робота задаёт контроллер движения {@link MotionController}.
+ * Реализации отличаются тем, как часто внутри шага пересматривается команда контроллера
+ * и, следовательно, точностью при больших длительностях шага.
+ * <p>
+ * Состояние робота передаётся в массиве из {@link #STATE_SIZE} элементов и изменяется на месте,
+ * поэтому шаг не создаёт объектов. Перед вызовом в элементах {@link #VELOCITY} и
+ * {@link #ANGULAR_VELOCITY} должна лежать команда контроллера для начального положения
+ * робота (флот вычисляет её сразу для группы роботов); после вызова их значения не определены.
+ * Реализации не должны хранить изменяемое состояние между вызовами: один интегратор
+ * используется одновременно несколькими потоками шага.
+ */
+public interface MotionIntegrator {
+    /**
+     * Индекс позиции по оси X в массиве состояния.
+     */
+    int X = 0;
+
+    /**
+     * Индекс позиции по оси Y в массиве состояния.
+     */
+    int Y = 1;
+
+    /**
+     * Индекс угла направления в массиве состояния.
+     */
+    int DIRECTION = 2;
+
+    /**
+     * Индекс линейной скорости из команды контроллера в массиве состояния.
+     */
+    int VELOCITY = 3;
+
+    /**
+     * Индекс угловой скорости из команды контроллера в массиве состояния.
+     */
+    int ANGULAR_VELOCITY = 4;
+
+    /**
+     * Число элементов массива состояния.
+     */
+    int STATE_SIZE = 5;
+
+    /**
+     * Продвигает робота к цели на заданное время.
+     *
+     * @param state      позиция, направление и команда для начального положения робота;
+     *                   позиция и направление заменяются новыми значениями
+     * @param targetX    позиция цели по оси X
+     * @param targetY    позиция цели по оси Y
+     * @param duration   длительность шага
+     * @param controller контроллер, которым пересчитывается команда внутри шага
+     * @return true, если робот сдвинулся; false, если он уже находится у цели
+     */
+    boolean integrate(double[] state, double targetX, double targetY, double duration,
+                      MotionController controller);
+}
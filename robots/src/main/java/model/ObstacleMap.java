@@ -0,0 +1,269 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Класс ObstacleMap - неизменяемая во время движения карта препятствий в виде сетки квадратных
+ * ячеек с левым верхним углом в начале координат поля. Ячейка задаётся номером
+ * {@code row * columns + column}.
+ * <p>
+ * Карта загружается из текста, где каждая строка - ряд ячеек, символ '#' обозначает
+ * занятую ячейку, а любой другой символ - свободную.
+ */
+public class ObstacleMap {
+    private final int columns;
+    private final int rows;
+    private final double cellSize;
+    private final boolean[] blocked;
+
+    /**
+     * Создает карту без препятствий.
+     *
+     * @param columns  число столбцов
+     * @param rows     число рядов
+     * @param cellSize сторона ячейки
+     * @throws IllegalArgumentException если размеры не положительны
+     */
+    public ObstacleMap(int columns, int rows, double cellSize) {
+        if (columns <= 0 || rows <= 0 || !(cellSize > 0)) {
+            throw new IllegalArgumentException("map dimensions must be positive");
+        }
+
+        this.columns = columns;
+        this.rows = rows;
+        this.cellSize = cellSize;
+        this.blocked = new boolean[columns * rows];
+    }
+
+    /**
+     * Разбирает карту из строк текста. Число столбцов равно длине самой длинной строки;
+     * недостающие ячейки коротких строк свободны.
+     *
+     * @param lines    строки карты
+     * @param cellSize сторона ячейки
+     * @return карта препятствий
+     */
+    public static ObstacleMap parse(List<String> lines, double cellSize) {
+        int columns = 1;
+        for (String line : lines) {
+            columns = Math.max(columns, line.length());
+        }
+
+        ObstacleMap map = new ObstacleMap(columns, Math.max(1, lines.size()), cellSize);
+        for (int row = 0; row < lines.size(); row++) {
+            String line = lines.get(row);
+            for (int column = 0; column < line.length(); column++) {
+                if (line.charAt(column) == '#') {
+                    map.setBlocked(column, row, true);
+                }
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Загружает карту из потока текста в кодировке UTF-8.
+     *
+     * @param in       поток с текстом карты
+     * @param cellSize сторона ячейки
+     * @return карта препятствий
+     * @throws IOException если поток не удалось прочитать
+     */
+    public static ObstacleMap load(InputStream in, double cellSize) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return parse(lines, cellSize);
+    }
+
+    /**
+     * Возвращает число столбцов карты.
+     *
+     * @return число столбцов
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Возвращает число рядов карты.
+     *
+     * @return число рядов
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Возвращает сторону ячейки.
+     *
+     * @return сторона ячейки
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Возвращает число ячеек карты.
+     *
+     * @return число ячеек
+     */
+    public int getCellCount() {
+        return blocked.length;
+    }
+
+    /**
+     * Отмечает ячейку занятой или свободной. Карта не должна изменяться во время планирования.
+     *
+     * @param column  столбец ячейки
+     * @param row     ряд ячейки
+     * @param blocked true, если ячейка занята
+     */
+    public void setBlocked(int column, int row, boolean blocked) {
+        this.blocked[row * columns + column] = blocked;
+    }
+
+    /**
+     * Проверяет, занята ли ячейка. Ячейки за пределами карты считаются занятыми.
+     *
+     * @param column столбец ячейки
+     * @param row    ряд ячейки
+     * @return true, если ячейка занята или лежит за пределами карты
+     */
+    public boolean isBlocked(int column, int row) {
+        return column < 0 || row < 0 || column >= columns || row >= rows || blocked[row * columns + column];
+    }
+
+    /**
+     * Проверяет, занята ли ячейка с заданным номером.
+     *
+     * @param cell номер ячейки
+     * @return true, если ячейка занята
+     */
+    public boolean isBlocked(int cell) {
+        return blocked[cell];
+    }
+
+    /**
+     * Ищет свободную ячейку, ближайшую к заданной (по расстоянию между центрами). Ячейки
+     * просматриваются квадратными кольцами вокруг заданной, пока кольцо не станет дальше
+     * лучшей найденной ячейки.
+     *
+     * @param cell номер ячейки
+     * @return номер ближайшей свободной ячейки (сама ячейка, если она свободна) или -1,
+     * если свободных ячеек на карте нет
+     */
+    public int nearestFreeCell(int cell) {
+        int column = cell % columns;
+        int row = cell / columns;
+        int best = -1;
+        long bestDistance = Long.MAX_VALUE;
+
+        int maxRing = Math.max(columns, rows);
+        for (int ring = 0; ring <= maxRing && (long) ring * ring <= bestDistance; ring++) {
+            for (int dy = -ring; dy <= ring; dy++) {
+                // на верхней и нижней сторонах кольца - все столбцы, на боковых - только крайние
+                int step = dy == -ring || dy == ring ? 1 : Math.max(1, 2 * ring);
+                for (int dx = -ring; dx <= ring; dx += step) {
+                    long distance = (long) dx * dx + (long) dy * dy;
+                    if (distance < bestDistance && !isBlocked(column + dx, row + dy)) {
+                        best = (row + dy) * columns + column + dx;
+                        bestDistance = distance;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Возвращает номер ячейки, в которой лежит точка поля.
+     *
+     * @param x позиция по оси X
+     * @param y позиция по оси Y
+     * @return номер ячейки или -1, если точка лежит за пределами карты
+     */
+    public int cellAt(double x, double y) {
+        int column = (int) Math.floor(x / cellSize);
+        int row = (int) Math.floor(y / cellSize);
+        if (column < 0 || row < 0 || column >= columns || row >= rows) {
+            return -1;
+        }
+        return row * columns + column;
+    }
+
+    /**
+     * Возвращает позицию центра ячейки по оси X.
+     *
+     * @param cell номер ячейки
+     * @return позиция центра по оси X
+     */
+    public double centerX(int cell) {
+        return (cell % columns + 0.5) * cellSize;
+    }
+
+    /**
+     * Возвращает позицию центра ячейки по оси Y.
+     *
+     * @param cell номер ячейки
+     * @return позиция центра по оси Y
+     */
+    public double centerY(int cell) {
+        return (cell / columns + 0.5) * cellSize;
+    }
+
+    /**
+     * Проверяет, что отрезок между центрами двух ячеек проходит только по свободным ячейкам
+     * (включая все ячейки, которых отрезок касается).
+     *
+     * @param from номер первой ячейки
+     * @param to   номер второй ячейки
+     * @return true, если между ячейками есть прямая видимость
+     */
+    public boolean hasLineOfSight(int from, int to) {
+        int x = from % columns;
+        int y = from / columns;
+        int toX = to % columns;
+        int toY = to / columns;
+
+        int nx = Math.abs(toX - x);
+        int ny = Math.abs(toY - y);
+        int stepX = Integer.signum(toX - x);
+        int stepY = Integer.signum(toY - y);
+
+        // обход всех ячеек, которые пересекает отрезок; при проходе точно через угол
+        // проверяются обе соседние по сторонам ячейки
+        for (int ix = 0, iy = 0; ix < nx || iy < ny; ) {
+            long decision = (1 + 2L * ix) * ny - (1 + 2L * iy) * nx;
+            if (decision == 0) {
+                if (isBlocked(x + stepX, y) || isBlocked(x, y + stepY)) {
+                    return false;
+                }
+                x += stepX;
+                y += stepY;
+                ix++;
+                iy++;
+            } else if (decision < 0) {
+                x += stepX;
+                ix++;
+            } else {
+                y += stepY;
+                iy++;
+            }
+            if (isBlocked(x, y)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
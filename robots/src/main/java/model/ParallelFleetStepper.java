@@ -0,0 +1,143 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Класс ParallelFleetStepper продвигает роботов флота параллельно.
+ * Флот делится на отрезки индексов, которые обрабатываются задачами fork/join в заданном пуле;
+ * метод {@link #step(RobotFleet, double)} возвращается только после завершения всех отрезков,
+ * поэтому такт публикуется целиком.
+ * <p>
+ * Каждый робот продвигается независимо от остальных теми же вычислениями, что и в
+ * {@link RobotFleet#step(double)}, поэтому без ядра и со скалярным ядром {@link ArcKernel#scalar()}
+ * результат побитово совпадает с последовательным шагом при любом числе потоков и любом размере
+ * отрезка. Векторное ядро {@link ArcKernel#vector()} тоже вычисляет каждого робота одинаково
+ * при любом делении на отрезки, но синусы и косинусы Vector API до и после компиляции JIT
+ * могут различаться в последнем знаке, поэтому с ним совпадение гарантируется лишь в пределах
+ * {@link ArcKernel#TOLERANCE} за шаг.
+ */
+public class ParallelFleetStepper {
+    /**
+     * Размер отрезка по умолчанию: достаточно велик, чтобы накладные расходы на задачу
+     * были малы по сравнению с вычислениями, и достаточно мал для балансировки нагрузки.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Создает параллельный шаг на общем пуле fork/join с размером отрезка по умолчанию.
+     */
+    public ParallelFleetStepper() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Создает параллельный шаг на заданном пуле.
+     *
+     * @param pool      пул, в котором выполняются задачи
+     * @param chunkSize наибольшее число роботов, обрабатываемых одной задачей без деления
+     * @throws IllegalArgumentException если размер отрезка не положителен
+     */
+    public ParallelFleetStepper(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Возвращает пул, в котором выполняются задачи.
+     *
+     * @return пул fork/join
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Продвигает всех роботов флота на заданное время и дожидается завершения всех отрезков,
+     * после чего разрешает столкновения (последовательно, в вызывающем потоке).
+     *
+     * @param fleet    флот роботов
+     * @param duration длительность шага
+     */
+    public void step(RobotFleet fleet, double duration) {
+        int size = fleet.size();
+
+        if (size <= chunkSize) {
+            fleet.stepRange(0, size, duration);
+        } else {
+            pool.invoke(new StepTask(fleet, 0, size, 1, duration, chunkSize));
+        }
+
+        fleet.resolveCollisions();
+    }
+
+    /**
+     * Продвигает всех роботов флота на заданное число шагов, как {@link RobotFleet#fastForward(long, double)},
+     * и дожидается завершения всех отрезков.
+     *
+     * @param fleet    флот роботов
+     * @param steps    число шагов
+     * @param duration длительность одного шага
+     */
+    public void fastForward(RobotFleet fleet, long steps, double duration) {
+        if (fleet.getCollisionDetector() != null) {
+            for (long i = 0; i < steps; i++) {
+                step(fleet, duration);
+            }
+            return;
+        }
+
+        int size = fleet.size();
+
+        if (size <= chunkSize) {
+            fleet.fastForwardRange(0, size, steps, duration);
+            return;
+        }
+
+        pool.invoke(new StepTask(fleet, 0, size, steps, duration, chunkSize));
+    }
+
+    /**
+     * Задача, которая делит отрезок индексов пополам, пока он не станет меньше размера отрезка.
+     */
+    private static class StepTask extends RecursiveAction {
+        private final RobotFleet fleet;
+        private final int from;
+        private final int to;
+        private final long steps;
+        private final double duration;
+        private final int chunkSize;
+
+        StepTask(RobotFleet fleet, int from, int to, long steps, double duration, int chunkSize) {
+            this.fleet = fleet;
+            this.from = from;
+            this.to = to;
+            this.steps = steps;
+            this.duration = duration;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                if (steps == 1) {
+                    fleet.stepRange(from, to, duration);
+                } else {
+                    fleet.fastForwardRange(from, to, steps, duration);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new StepTask(fleet, from, middle, steps, duration, chunkSize),
+                    new StepTask(fleet, middle, to, steps, duration, chunkSize));
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Класс PathPlanner ищет кратчайший путь между ячейками карты препятствий алгоритмом A*.
+ * Из ячейки можно перейти в любую из восьми соседних свободных ячеек; по диагонали - только
+ * если обе ячейки, через углы которых проходит ход, свободны. Эвристика - октильное расстояние,
+ * допустимое для такой сетки, поэтому найденный путь кратчайший.
+ * <p>
+ * Найденный путь сокращается до точек поворота, а затем точки, между которыми есть прямая
+ * видимость, соединяются напрямую, чтобы робот ехал по прямым, а не по ступенькам сетки.
+ * <p>
+ * Все рабочие массивы выделяются один раз на карту и используются повторно, поэтому планировщик
+ * не потокобезопасен: каждый поток должен использовать свой экземпляр.
+ */
+public class PathPlanner {
+    private static final double DIAGONAL = Math.sqrt(2);
+
+    private final ObstacleMap map;
+    private final double[] cost;
+    private final int[] parent;
+    private final int[] visited;
+    private final boolean[] closed;
+    private int search;
+
+    private int[] heap = new int[64];
+    private double[] heapKeys = new double[64];
+    private int heapSize;
+
+    /**
+     * Создает планировщик для карты.
+     *
+     * @param map карта препятствий
+     */
+    public PathPlanner(ObstacleMap map) {
+        this.map = map;
+        int cells = map.getCellCount();
+        cost = new double[cells];
+        parent = new int[cells];
+        visited = new int[cells];
+        closed = new boolean[cells];
+    }
+
+    /**
+     * Возвращает карту, по которой ищутся пути.
+     *
+     * @return карта препятствий
+     */
+    public ObstacleMap getMap() {
+        return map;
+    }
+
+    /**
+     * Ищет путь между ячейками.
+     *
+     * @param start номер начальной ячейки; может быть занятой (робот мог заехать на препятствие)
+     * @param goal  номер целевой ячейки
+     * @return ячейки пути без начальной, заканчивающиеся целевой; пустой массив, если ячейки совпадают;
+     * null, если целевая ячейка занята или недостижима
+     */
+    public int[] findPath(int start, int goal) {
+        if (map.isBlocked(goal)) {
+            return null;
+        }
+        if (start == goal) {
+            return new int[0];
+        }
+
+        int columns = map.getColumns();
+        int goalColumn = goal % columns;
+        int goalRow = goal / columns;
+
+        beginSearch();
+        open(start, -1, 0, heuristic(start % columns, start / columns, goalColumn, goalRow));
+
+        while (heapSize > 0) {
+            int cell = poll();
+            if (closed[cell]) {
+                continue;
+            }
+            if (cell == goal) {
+                return simplify(start, goal);
+            }
+            closed[cell] = true;
+
+            int column = cell % columns;
+            int row = cell / columns;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if ((dx == 0 && dy == 0) || map.isBlocked(column + dx, row + dy)) {
+                        continue;
+                    }
+                    if (dx != 0 && dy != 0
+                            && (map.isBlocked(column + dx, row) || map.isBlocked(column, row + dy))) {
+                        continue;
+                    }
+
+                    int neighbour = cell + dy * columns + dx;
+                    double neighbourCost = cost[cell] + (dx != 0 && dy != 0 ? DIAGONAL : 1);
+                    if (visited[neighbour] != search || neighbourCost < cost[neighbour]) {
+                        open(neighbour, cell, neighbourCost,
+                                neighbourCost + heuristic(column + dx, row + dy, goalColumn, goalRow));
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static double heuristic(int column, int row, int goalColumn, int goalRow) {
+        int dx = Math.abs(column - goalColumn);
+        int dy = Math.abs(row - goalRow);
+        return Math.max(dx, dy) + (DIAGONAL - 1) * Math.min(dx, dy);
+    }
+
+    /**
+     * Начинает новый поиск: ячейки, посещённые прошлыми поисками, отличаются номером поиска,
+     * поэтому массивы стоимостей не нужно очищать целиком.
+     */
+    private void beginSearch() {
+        search++;
+        if (search == 0) {
+            Arrays.fill(visited, 0);
+            search = 1;
+        }
+        heapSize = 0;
+    }
+
+    private void open(int cell, int from, double cellCost, double key) {
+        if (visited[cell] != search) {
+            visited[cell] = search;
+            closed[cell] = false;
+        }
+        cost[cell] = cellCost;
+        parent[cell] = from;
+        push(cell, key);
+    }
+
+    /**
+     * Восстанавливает путь по ссылкам на предыдущие ячейки и оставляет только точки,
+     * между которыми нельзя проехать по прямой.
+     */
+    private int[] simplify(int start, int goal) {
+        int length = 0;
+        for (int cell = goal; cell != start; cell = parent[cell]) {
+            length++;
+        }
+
+        int[] path = new int[length + 1];
+        int position = length;
+        for (int cell = goal; ; cell = parent[cell]) {
+            path[position--] = cell;
+            if (cell == start) {
+                break;
+            }
+        }
+
+        int[] result = new int[length];
+        int count = 0;
+        int anchor = 0;
+        while (anchor < length) {
+            int farthest = anchor + 1;
+            while (farthest < length && map.hasLineOfSight(path[anchor], path[farthest + 1])) {
+                farthest++;
+            }
+            result[count++] = path[farthest];
+            anchor = farthest;
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    private void push(int cell, double key) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+            heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+        }
+
+        int child = heapSize++;
+        while (child > 0) {
+            int parentIndex = (child - 1) >>> 1;
+            if (heapKeys[parentIndex] <= key) {
+                break;
+            }
+            heap[child] = heap[parentIndex];
+            heapKeys[child] = heapKeys[parentIndex];
+            child = parentIndex;
+        }
+        heap[child] = cell;
+        heapKeys[child] = key;
+    }
+
+    private int poll() {
+        int result = heap[0];
+        int cell = heap[--heapSize];
+        double key = heapKeys[heapSize];
+
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+                child++;
+            }
+            if (heapKeys[child] >= key) {
+                break;
+            }
+            heap[index] = heap[child];
+            heapKeys[index] = heapKeys[child];
+            index = child;
+        }
+        heap[index] = cell;
+        heapKeys[index] = key;
+
+        return result;
+    }
+}
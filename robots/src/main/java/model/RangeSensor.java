@@ -0,0 +1,267 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Класс RangeSensor моделирует дальномер (лидар) роботов: веер лучей, выпущенных из позиции
+ * робота относительно его направления, и расстояние вдоль каждого луча до первой занятой
+ * ячейки карты препятствий.
+ * <p>
+ * Луч проходит по ячейкам карты алгоритмом DDA (Amanatides-Woo): на каждом шаге он переходит
+ * в соседнюю ячейку через ту грань, до которой ближе, поэтому число проверок равно числу
+ * пересечённых ячеек и не зависит от длины шага. Косинусы и синусы углов лучей относительно
+ * направления робота вычисляются один раз в конструкторе; направление луча в мире получается
+ * из них поворотом на угол робота без тригонометрии на каждый луч.
+ * <p>
+ * Ячейки за пределами карты считаются занятыми, как и в {@link ObstacleMap#isBlocked(int, int)},
+ * поэтому край карты действует как стена. Если робот стоит в занятой ячейке или за пределами
+ * карты, все его лучи возвращают 0. Если препятствия нет ближе наибольшей дальности, луч
+ * возвращает наибольшую дальность.
+ * <p>
+ * Опрос всех роботов флота делится на отрезки индексов, которые обрабатываются задачами
+ * fork/join; сенсор не изменяет своего состояния при опросе, поэтому один экземпляр можно
+ * использовать из нескольких потоков.
+ */
+public class RangeSensor {
+    /**
+     * Число роботов, опрашиваемых одной задачей без деления, по умолчанию.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 64;
+
+    private final ObstacleMap map;
+    private final int rays;
+    private final double maxRange;
+    private final double[] rayAngle;
+    private final double[] rayCos;
+    private final double[] raySin;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Создает сенсор, опрашивающий флот на общем пуле fork/join.
+     *
+     * @param map         карта препятствий
+     * @param rays        число лучей
+     * @param fieldOfView угол обзора в радианах; при 2 * PI и больше лучи равномерно покрывают круг
+     * @param maxRange    наибольшая дальность луча
+     */
+    public RangeSensor(ObstacleMap map, int rays, double fieldOfView, double maxRange) {
+        this(map, rays, fieldOfView, maxRange, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Создает сенсор.
+     *
+     * @param map         карта препятствий
+     * @param rays        число лучей
+     * @param fieldOfView угол обзора в радианах; при 2 * PI и больше лучи равномерно покрывают круг
+     * @param maxRange    наибольшая дальность луча
+     * @param pool        пул, в котором опрашивается флот
+     * @param chunkSize   наибольшее число роботов, опрашиваемых одной задачей без деления
+     * @throws IllegalArgumentException если число лучей, дальность или размер отрезка не положительны
+     */
+    public RangeSensor(ObstacleMap map, int rays, double fieldOfView, double maxRange,
+                       ForkJoinPool pool, int chunkSize) {
+        if (rays <= 0 || !(maxRange > 0) || chunkSize <= 0) {
+            throw new IllegalArgumentException("rays, maxRange and chunkSize must be positive");
+        }
+
+        this.map = map;
+        this.rays = rays;
+        this.maxRange = maxRange;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+
+        rayAngle = new double[rays];
+        rayCos = new double[rays];
+        raySin = new double[rays];
+        boolean fullCircle = fieldOfView >= 2 * Math.PI;
+        for (int ray = 0; ray < rays; ray++) {
+            double angle;
+            if (fullCircle) {
+                angle = 2 * Math.PI * ray / rays;
+            } else if (rays == 1) {
+                angle = 0;
+            } else {
+                angle = -fieldOfView / 2 + fieldOfView * ray / (rays - 1);
+            }
+            rayAngle[ray] = angle;
+            rayCos[ray] = Math.cos(angle);
+            raySin[ray] = Math.sin(angle);
+        }
+    }
+
+    /**
+     * Возвращает число лучей.
+     *
+     * @return число лучей
+     */
+    public int getRayCount() {
+        return rays;
+    }
+
+    /**
+     * Возвращает угол луча относительно направления робота.
+     *
+     * @param ray номер луча
+     * @return угол луча в радианах
+     */
+    public double getRayAngle(int ray) {
+        return rayAngle[ray];
+    }
+
+    /**
+     * Возвращает наибольшую дальность луча.
+     *
+     * @return наибольшая дальность
+     */
+    public double getMaxRange() {
+        return maxRange;
+    }
+
+    /**
+     * Возвращает карту препятствий.
+     *
+     * @return карта препятствий
+     */
+    public ObstacleMap getMap() {
+        return map;
+    }
+
+    /**
+     * Опрашивает сенсоры всех роботов флота. Расстояние луча {@code ray} робота {@code index}
+     * записывается в элемент {@code index * getRayCount() + ray}.
+     *
+     * @param fleet  флот роботов
+     * @param ranges массив для результатов или null; если его длины не хватает, создаётся новый
+     * @return массив с результатами
+     */
+    public double[] scan(RobotFleet fleet, double[] ranges) {
+        int size = fleet.size();
+        if (ranges == null || ranges.length < size * rays) {
+            ranges = new double[size * rays];
+        }
+
+        if (size <= chunkSize) {
+            scanRange(fleet, 0, size, ranges);
+        } else {
+            pool.invoke(new ScanTask(fleet, 0, size, ranges));
+        }
+        return ranges;
+    }
+
+    /**
+     * Опрашивает сенсор одного робота.
+     *
+     * @param fleet  флот роботов
+     * @param index  индекс робота
+     * @param ranges массив для результатов
+     * @param offset индекс элемента массива, в который записывается первый луч
+     */
+    public void scan(RobotFleet fleet, int index, double[] ranges, int offset) {
+        scanRobot(fleet.getX(index), fleet.getY(index), fleet.getDirection(index), ranges, offset);
+    }
+
+    /**
+     * Выпускает один луч.
+     *
+     * @param x     позиция начала луча по оси X
+     * @param y     позиция начала луча по оси Y
+     * @param angle направление луча в радианах
+     * @return расстояние до первой занятой ячейки, но не больше наибольшей дальности
+     */
+    public double castRay(double x, double y, double angle) {
+        return cast(x, y, Math.cos(angle), Math.sin(angle));
+    }
+
+    private void scanRange(RobotFleet fleet, int from, int to, double[] ranges) {
+        for (int index = from; index < to; index++) {
+            scanRobot(fleet.getX(index), fleet.getY(index), fleet.getDirection(index), ranges, index * rays);
+        }
+    }
+
+    private void scanRobot(double x, double y, double direction, double[] ranges, int offset) {
+        double cos = Math.cos(direction);
+        double sin = Math.sin(direction);
+        for (int ray = 0; ray < rays; ray++) {
+            double dx = cos * rayCos[ray] - sin * raySin[ray];
+            double dy = sin * rayCos[ray] + cos * raySin[ray];
+            ranges[offset + ray] = cast(x, y, dx, dy);
+        }
+    }
+
+    /**
+     * Проходит луч по ячейкам карты. Расчёт ведётся в единицах ячеек: tMax - параметр луча,
+     * при котором он пересечёт ближайшую вертикальную (горизонтальную) грань, tDelta - приращение
+     * параметра между соседними гранями.
+     */
+    private double cast(double x, double y, double dx, double dy) {
+        double cellSize = map.getCellSize();
+        double px = x / cellSize;
+        double py = y / cellSize;
+        int column = (int) Math.floor(px);
+        int row = (int) Math.floor(py);
+        if (map.isBlocked(column, row)) {
+            return 0;
+        }
+
+        double limit = maxRange / cellSize;
+        int stepX = dx > 0 ? 1 : -1;
+        int stepY = dy > 0 ? 1 : -1;
+        double deltaX = dx != 0 ? Math.abs(1 / dx) : Double.POSITIVE_INFINITY;
+        double deltaY = dy != 0 ? Math.abs(1 / dy) : Double.POSITIVE_INFINITY;
+        // луч вдоль оси никогда не пересекает параллельные ей грани; умножение на бесконечный
+        // шаг дало бы NaN, если начало луча лежит на грани
+        double maxX = dx != 0 ? (dx > 0 ? column + 1 - px : px - column) * deltaX : Double.POSITIVE_INFINITY;
+        double maxY = dy != 0 ? (dy > 0 ? row + 1 - py : py - row) * deltaY : Double.POSITIVE_INFINITY;
+
+        while (true) {
+            double t;
+            if (maxX < maxY) {
+                t = maxX;
+                maxX += deltaX;
+                column += stepX;
+            } else {
+                t = maxY;
+                maxY += deltaY;
+                row += stepY;
+            }
+
+            if (t >= limit) {
+                return maxRange;
+            }
+            if (map.isBlocked(column, row)) {
+                return t * cellSize;
+            }
+        }
+    }
+
+    /**
+     * Задача, которая делит отрезок индексов пополам, пока он не станет меньше размера отрезка.
+     */
+    private class ScanTask extends RecursiveAction {
+        private final RobotFleet fleet;
+        private final int from;
+        private final int to;
+        private final double[] ranges;
+
+        ScanTask(RobotFleet fleet, int from, int to, double[] ranges) {
+            this.fleet = fleet;
+            this.from = from;
+            this.to = to;
+            this.ranges = ranges;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= chunkSize) {
+                scanRange(fleet, from, to, ranges);
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScanTask(fleet, from, middle, ranges), new ScanTask(fleet, middle, to, ranges));
+        }
+    }
+}
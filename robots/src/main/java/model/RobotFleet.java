@@ -0,0 +1,971 @@
+package model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Класс RobotFleet хранит состояние множества роботов в виде столбцов примитивных массивов
+ * (структура массивов): координаты, направления и цели всех роботов лежат подряд в памяти.
+ * Один вызов {@link #step(double)} продвигает всех роботов за один проход по массивам,
+ * без создания объектов и без оповещения подписчиков для каждого робота: о том, что роботы
+ * сдвинулись, сообщает один флаг в канале {@link #getChanges()}.
+ * <p>
+ * Кинематика совпадает с {@link ModelRobot#moveRobot(double, double, double)};
+ * {@link ModelRobot} является представлением одного робота флота. Команду (линейную и угловую
+ * скорость) выбирает контроллер {@link MotionController}, по умолчанию исходное релейное правило
+ * {@link BangBangController}; команды вычисляются сразу для отрезка роботов. Способ продвижения
+ * робота на шаг по команде задаётся интегратором {@link MotionIntegrator}: исходная дуга,
+ * метод Рунге-Кутты или адаптивный шаг с заданной точностью.
+ * <p>
+ * Позиция и цель каждого робота защищены версиями (seqlock): писатель делает версию нечётной
+ * на время записи и снова чётной после неё, а читатель {@link #readState(int, RobotState)}
+ * повторяет чтение, пока версии до и после него не совпадут. Так читатели получают
+ * согласованный снимок без блокировок и не мешают потоку модели. Позицию робота в каждый момент
+ * должен изменять только один поток (поток шага модели), цель может изменяться из любых потоков.
+ * <p>
+ * По запросу {@link #createSpatialIndex(double)} флот поддерживает пространственные индексы
+ * {@link SpatialGrid} позиций и целей роботов для запросов по области, ближайших соседей
+ * и выбора робота по точке. Установленный {@link CollisionDetector} после каждого шага
+ * раздвигает роботов, корпуса которых пересеклись. Вместо одной цели робот может следовать
+ * по очереди точек маршрута ({@link #setRoute(int, int[], int[], double)},
+ * {@link #enqueueWaypoints(int, int[], int[], int, int)}).
+ */
+public class RobotFleet {
+    public static final double maxVelocity = 0.1;
+    public static final double maxAngularVelocity = 0.001;
+
+    final double[] positionX;
+    final double[] positionY;
+    final double[] direction;
+    final int[] targetX;
+    final int[] targetY;
+    private final long[] positionVersions;
+    private final long[] targetVersions;
+    private final double[] arrivalRadius;
+    private final WaypointQueue[] waypoints;
+    private final double[] commandVelocity;
+    private final double[] commandAngularVelocity;
+
+    private static final VarHandle VERSIONS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private int size;
+
+    private final ModelChangeChannel changes = new ModelChangeChannel();
+
+    private static final MotionIntegrator exactArc = new ExactArcIntegrator();
+
+    private volatile MotionIntegrator integrator = exactArc;
+
+    private volatile MotionController controller = new BangBangController();
+
+    private volatile SpatialGrid robotGrid;
+    private volatile SpatialGrid targetGrid;
+
+    private volatile CollisionDetector collisions;
+
+    private volatile ArcKernel kernel;
+    private double[] nextX;
+    private double[] nextY;
+    private double[] nextDirection;
+
+    /**
+     * Создает пустой флот заданной ёмкости. Память под всех роботов выделяется сразу.
+     *
+     * @param capacity наибольшее число роботов во флоте
+     */
+    public RobotFleet(int capacity) {
+        positionX = new double[capacity];
+        positionY = new double[capacity];
+        direction = new double[capacity];
+        targetX = new int[capacity];
+        targetY = new int[capacity];
+        positionVersions = new long[capacity];
+        targetVersions = new long[capacity];
+        arrivalRadius = new double[capacity];
+        waypoints = new WaypointQueue[capacity];
+        commandVelocity = new double[capacity];
+        commandAngularVelocity = new double[capacity];
+    }
+
+    /**
+     * Добавляет робота во флот.
+     *
+     * @param x         начальная позиция робота по оси X
+     * @param y         начальная позиция робота по оси Y
+     * @param direction начальное направление робота в радианах
+     * @param targetX   позиция цели по оси X
+     * @param targetY   позиция цели по оси Y
+     * @return индекс добавленного робота
+     * @throws IllegalStateException если флот заполнен
+     */
+    public int addRobot(double x, double y, double direction, int targetX, int targetY) {
+        if (size == positionX.length) {
+            throw new IllegalStateException("fleet is full");
+        }
+
+        int index = size;
+        positionX[index] = x;
+        positionY[index] = y;
+        this.direction[index] = direction;
+        this.targetX[index] = targetX;
+        this.targetY[index] = targetY;
+        size++;
+
+        if (robotGrid != null) {
+            robotGrid.insert(index, x, y);
+            targetGrid.insert(index, targetX, targetY);
+        }
+
+        return index;
+    }
+
+    /**
+     * Возвращает канал оповещений об изменениях флота.
+     *
+     * @return канал оповещений
+     */
+    public ModelChangeChannel getChanges() {
+        return changes;
+    }
+
+    /**
+     * Возвращает интегратор, которым продвигаются роботы.
+     *
+     * @return интегратор движения
+     */
+    public MotionIntegrator getIntegrator() {
+        return integrator;
+    }
+
+    /**
+     * Устанавливает интегратор, которым продвигаются роботы. По умолчанию используется
+     * исходная кинематика {@link ExactArcIntegrator}. Новый интегратор применяется
+     * со следующего шага.
+     *
+     * @param integrator интегратор движения
+     */
+    public void setIntegrator(MotionIntegrator integrator) {
+        this.integrator = integrator;
+    }
+
+    /**
+     * Возвращает контроллер, который выбирает команды роботов.
+     *
+     * @return контроллер движения
+     */
+    public MotionController getController() {
+        return controller;
+    }
+
+    /**
+     * Устанавливает контроллер, который выбирает команды роботов. По умолчанию используется
+     * исходное правило {@link BangBangController}. Новый контроллер применяется со следующего шага.
+     *
+     * @param controller контроллер движения
+     */
+    public void setController(MotionController controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * Возвращает ядро, которым продвигаются роботы при интеграторе {@link ExactArcIntegrator}.
+     *
+     * @return ядро или null, если роботы продвигаются интегратором по одному
+     */
+    public ArcKernel getKernel() {
+        return kernel;
+    }
+
+    /**
+     * Устанавливает ядро, которым продвигаются роботы, пока выбран интегратор {@link ExactArcIntegrator}:
+     * новые позиции отрезка роботов вычисляются одним вызовом ядра, например векторного
+     * {@link ArcKernel#vector()}. При других интеграторах ядро не используется. Ядро нельзя
+     * заменять во время шага.
+     *
+     * @param kernel ядро или null, чтобы продвигать роботов интегратором по одному
+     */
+    public void setKernel(ArcKernel kernel) {
+        if (kernel != null && nextX == null) {
+            nextX = new double[positionX.length];
+            nextY = new double[positionX.length];
+            nextDirection = new double[positionX.length];
+        }
+        this.kernel = kernel;
+    }
+
+    /**
+     * Возвращает детектор столкновений, который применяется после каждого шага.
+     *
+     * @return детектор столкновений или null, если столкновения не обрабатываются
+     */
+    public CollisionDetector getCollisionDetector() {
+        return collisions;
+    }
+
+    /**
+     * Устанавливает детектор столкновений, который применяется после каждого шага.
+     * Пока детектор установлен, {@link #fastForward(long, double)} выполняет шаги по одному.
+     *
+     * @param collisions детектор столкновений или null, чтобы роботы проходили друг сквозь друга
+     */
+    public void setCollisionDetector(CollisionDetector collisions) {
+        this.collisions = collisions;
+    }
+
+    /**
+     * Находит и разрешает столкновения роботов установленным детектором.
+     * Вызывается после продвижения всех роботов на шаг.
+     */
+    public void resolveCollisions() {
+        CollisionDetector detector = collisions;
+        if (detector != null && detector.resolve(this) > 0) {
+            changes.markChanged(ModelChangeChannel.ROBOT_MOVED);
+        }
+    }
+
+    /**
+     * Строит пространственные индексы позиций роботов и их целей. После вызова индексы
+     * поддерживаются при каждом перемещении робота и смене цели. Должен вызываться
+     * до запуска шагов модели.
+     *
+     * @param cellSize сторона ячейки сетки индексов
+     */
+    public void createSpatialIndex(double cellSize) {
+        SpatialGrid robots = new SpatialGrid(capacity(), cellSize);
+        SpatialGrid targets = new SpatialGrid(capacity(), cellSize);
+
+        for (int i = 0; i < size; i++) {
+            robots.insert(i, positionX[i], positionY[i]);
+            targets.insert(i, targetX[i], targetY[i]);
+        }
+
+        targetGrid = targets;
+        robotGrid = robots;
+    }
+
+    /**
+     * Возвращает пространственный индекс позиций роботов.
+     *
+     * @return индекс позиций или null, если индексы не построены
+     * @see #createSpatialIndex(double)
+     */
+    public SpatialGrid getRobotGrid() {
+        return robotGrid;
+    }
+
+    /**
+     * Возвращает пространственный индекс целей роботов.
+     *
+     * @return индекс целей или null, если индексы не построены
+     * @see #createSpatialIndex(double)
+     */
+    public SpatialGrid getTargetGrid() {
+        return targetGrid;
+    }
+
+    /**
+     * Возвращает количество роботов во флоте.
+     *
+     * @return количество роботов
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Возвращает ёмкость флота.
+     *
+     * @return наибольшее число роботов во флоте
+     */
+    public int capacity() {
+        return positionX.length;
+    }
+
+    /**
+     * Возвращает позицию робота по оси X.
+     *
+     * @param index индекс робота
+     * @return позиция робота по оси X
+     */
+    public double getX(int index) {
+        return positionX[index];
+    }
+
+    /**
+     * Возвращает позицию робота по оси Y.
+     *
+     * @param index индекс робота
+     * @return позиция робота по оси Y
+     */
+    public double getY(int index) {
+        return positionY[index];
+    }
+
+    /**
+     * Возвращает угол направления робота в радианах.
+     *
+     * @param index индекс робота
+     * @return угол направления робота в радианах
+     */
+    public double getDirection(int index) {
+        return direction[index];
+    }
+
+    /**
+     * Возвращает позицию цели робота по оси X.
+     *
+     * @param index индекс робота
+     * @return позиция цели по оси X
+     */
+    public int getTargetX(int index) {
+        return targetX[index];
+    }
+
+    /**
+     * Возвращает позицию цели робота по оси Y.
+     *
+     * @param index индекс робота
+     * @return позиция цели по оси Y
+     */
+    public int getTargetY(int index) {
+        return targetY[index];
+    }
+
+    /**
+     * Устанавливает новую цель робота. Очередь точек маршрута робота очищается.
+     *
+     * @param index индекс робота
+     * @param x     позиция цели по оси X
+     * @param y     позиция цели по оси Y
+     */
+    public void setTarget(int index, int x, int y) {
+        long version = lockTarget(index);
+        clearQueue(index);
+        writeTarget(index, x, y);
+        unlockTarget(index, version);
+
+        changes.markChanged(ModelChangeChannel.TARGET_CHANGED);
+    }
+
+    /**
+     * Направляет робота по маршруту: робот едет к первой точке, а остальные точки ставятся
+     * в очередь. Когда робот подъезжает к текущей точке ближе заданного радиуса, цель сменяется
+     * следующей точкой очереди; последняя точка достигается так же, как цель из
+     * {@link #setTarget(int, int, int)}. Новый маршрут или новая цель заменяют текущий маршрут.
+     *
+     * @param index  индекс робота
+     * @param xs     позиции точек маршрута по оси X (не меньше одной точки)
+     * @param ys     позиции точек маршрута по оси Y
+     * @param radius радиус, в котором точка считается достигнутой (не меньше 0.5)
+     */
+    public void setRoute(int index, int[] xs, int[] ys, double radius) {
+        setRoute(index, xs, ys, radius, null);
+    }
+
+    /**
+     * Направляет робота по маршруту, как {@link #setRoute(int, int[], int[], double)}, но сверяет
+     * смену цели с картой препятствий: в пределах радиуса цель сменяется, только если из ячейки
+     * робота по прямой видна ячейка следующей точки. Иначе робот срезал бы угол маршрута через
+     * занятые ячейки; вместо этого он едет к текущей точке, пока не увидит следующую или не
+     * подъедет к текущей ближе половины ячейки.
+     *
+     * @param index  индекс робота
+     * @param xs     позиции точек маршрута по оси X (не меньше одной точки)
+     * @param ys     позиции точек маршрута по оси Y
+     * @param radius радиус, в котором точка считается достигнутой (не меньше 0.5)
+     * @param map    карта, по которой проверяется видимость следующей точки, или null
+     */
+    public void setRoute(int index, int[] xs, int[] ys, double radius, ObstacleMap map) {
+        long version = lockTarget(index);
+        WaypointQueue queue = clearQueue(index);
+        queue.radius = Math.max(0.5, radius);
+        queue.map = map;
+        queue.addAll(xs, ys, 1, xs.length - 1);
+        arrivalRadius[index] = queue.size > 0 ? queue.radius : 0;
+        writeTarget(index, xs[0], ys[0]);
+        unlockTarget(index, version);
+
+        changes.markChanged(ModelChangeChannel.TARGET_CHANGED);
+    }
+
+    /**
+     * Добавляет точки в конец очереди маршрута робота. Робот поедет к ним по порядку после
+     * текущей цели; если он уже стоит у цели, то сразу к первой добавленной точке. Точки
+     * копируются в примитивные массивы очереди, которые растут только при нехватке места,
+     * поэтому добавление не создаёт объектов на каждую точку. Подписчики получают одно
+     * оповещение на весь вызов.
+     *
+     * @param index  индекс робота
+     * @param xs     позиции точек по оси X
+     * @param ys     позиции точек по оси Y
+     * @param offset индекс первой добавляемой точки в массивах
+     * @param count  число добавляемых точек
+     */
+    public void enqueueWaypoints(int index, int[] xs, int[] ys, int offset, int count) {
+        if (count <= 0) {
+            return;
+        }
+
+        long version = lockTarget(index);
+        WaypointQueue queue = queue(index);
+        queue.addAll(xs, ys, offset, count);
+        arrivalRadius[index] = queue.radius;
+        unlockTarget(index, version);
+
+        changes.markChanged(ModelChangeChannel.TARGET_CHANGED);
+    }
+
+    /**
+     * Добавляет одну точку в конец очереди маршрута робота.
+     *
+     * @param index индекс робота
+     * @param x     позиция точки по оси X
+     * @param y     позиция точки по оси Y
+     * @see #enqueueWaypoints(int, int[], int[], int, int)
+     */
+    public void enqueueWaypoint(int index, int x, int y) {
+        long version = lockTarget(index);
+        WaypointQueue queue = queue(index);
+        queue.add(x, y);
+        arrivalRadius[index] = queue.radius;
+        unlockTarget(index, version);
+
+        changes.markChanged(ModelChangeChannel.TARGET_CHANGED);
+    }
+
+    /**
+     * Очищает очередь маршрута робота; робот продолжает ехать к текущей цели.
+     *
+     * @param index индекс робота
+     */
+    public void clearWaypoints(int index) {
+        long version = lockTarget(index);
+        clearQueue(index);
+        unlockTarget(index, version);
+    }
+
+    /**
+     * Возвращает число точек в очереди маршрута робота, не считая текущей цели.
+     *
+     * @param index индекс робота
+     * @return число точек в очереди
+     */
+    public int getWaypointCount(int index) {
+        long version = lockTarget(index);
+        WaypointQueue queue = waypoints[index];
+        int count = queue == null ? 0 : queue.size;
+        unlockTarget(index, version);
+        return count;
+    }
+
+    /**
+     * Возвращает очередь маршрута робота, создавая её при первом обращении.
+     * Вызывается под захватом цели.
+     */
+    private WaypointQueue queue(int index) {
+        WaypointQueue queue = waypoints[index];
+        if (queue == null) {
+            queue = new WaypointQueue();
+            waypoints[index] = queue;
+        }
+        return queue;
+    }
+
+    /**
+     * Очищает очередь маршрута робота, сохраняя её массивы. Вызывается под захватом цели.
+     */
+    private WaypointQueue clearQueue(int index) {
+        WaypointQueue queue = queue(index);
+        queue.head = 0;
+        queue.size = 0;
+        queue.radius = 0.5;
+        queue.map = null;
+        arrivalRadius[index] = 0;
+        return queue;
+    }
+
+    /**
+     * Проверяет, подъехал ли робот к текущей цели ближе радиуса достижения, и если в очереди
+     * маршрута есть точки, сменяет цель следующей точкой. Вызывается потоком шага робота.
+     *
+     * @param index индекс робота
+     * @return true, если цель сменилась
+     */
+    private boolean checkWaypoint(int index) {
+        double radius = arrivalRadius[index];
+        if (radius == 0 || distance(targetX[index], targetY[index], positionX[index], positionY[index]) >= radius) {
+            return false;
+        }
+
+        long version = lockTarget(index);
+        WaypointQueue queue = waypoints[index];
+        // цель и очередь могли смениться другим потоком после проверки выше
+        boolean advance = false;
+        if (queue != null && queue.size > 0) {
+            double distance = distance(targetX[index], targetY[index], positionX[index], positionY[index]);
+            advance = distance < queue.radius && (queue.map == null
+                    || distance < queue.map.getCellSize() / 2
+                    || canSee(queue.map, positionX[index], positionY[index], queue.xs[queue.head], queue.ys[queue.head]));
+        }
+        if (advance) {
+            int head = queue.head;
+            writeTarget(index, queue.xs[head], queue.ys[head]);
+            queue.head = (head + 1) % queue.xs.length;
+            queue.size--;
+        }
+        arrivalRadius[index] = queue != null && queue.size > 0 ? queue.radius : 0;
+        unlockTarget(index, version);
+
+        return advance;
+    }
+
+    /**
+     * Проверяет, видна ли с позиции робота точка маршрута на карте. Точки вне карты
+     * считаются видимыми: карта о них ничего не знает.
+     */
+    private static boolean canSee(ObstacleMap map, double x, double y, int toX, int toY) {
+        int from = map.cellAt(x, y);
+        int to = map.cellAt(toX, toY);
+        return from < 0 || to < 0 || map.hasLineOfSight(from, to);
+    }
+
+    /**
+     * Захватывает цель робота для записи, делая её версию нечётной. Писатели цели из разных
+     * потоков ожидают друг друга.
+     *
+     * @param index индекс робота
+     * @return версия цели до начала записи
+     */
+    private long lockTarget(int index) {
+        long version;
+        do {
+            version = (long) VERSIONS.getAcquire(targetVersions, index);
+        } while ((version & 1) != 0 || !VERSIONS.compareAndSet(targetVersions, index, version, version + 1));
+        return version;
+    }
+
+    private void unlockTarget(int index, long version) {
+        VERSIONS.setRelease(targetVersions, index, version + 2);
+    }
+
+    private void writeTarget(int index, int x, int y) {
+        targetX[index] = x;
+        targetY[index] = y;
+        SpatialGrid grid = targetGrid;
+        if (grid != null) {
+            grid.move(index, x, y);
+        }
+    }
+
+    /**
+     * Читает согласованный снимок состояния робота без блокировок и без создания объектов.
+     * Позиция, направление и цель в снимке относятся к одному и тому же моменту.
+     *
+     * @param index индекс робота
+     * @param into  объект, в который записывается снимок
+     * @return переданный объект со снимком
+     */
+    public RobotState readState(int index, RobotState into) {
+        while (true) {
+            long position = (long) VERSIONS.getAcquire(positionVersions, index);
+            long target = (long) VERSIONS.getAcquire(targetVersions, index);
+
+            if (((position | target) & 1) == 0) {
+                double x = positionX[index];
+                double y = positionY[index];
+                double robotDirection = direction[index];
+                int robotTargetX = targetX[index];
+                int robotTargetY = targetY[index];
+
+                VarHandle.loadLoadFence();
+                if (position == (long) VERSIONS.getOpaque(positionVersions, index)
+                        && target == (long) VERSIONS.getOpaque(targetVersions, index)) {
+                    into.set(x, y, robotDirection, robotTargetX, robotTargetY);
+                    return into;
+                }
+            }
+
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Продвигает всех роботов флота к их целям на заданное время.
+     *
+     * @param duration длительность шага
+     */
+    public void step(double duration) {
+        stepRange(0, size, duration);
+        resolveCollisions();
+    }
+
+    /**
+     * Продвигает роботов с индексами из полуинтервала [from, to) к их целям на заданное время.
+     * Столкновения не обрабатываются: после продвижения всех отрезков вызывается {@link #resolveCollisions()}.
+     *
+     * @param from     индекс первого робота (включительно)
+     * @param to       индекс последнего робота (не включительно)
+     * @param duration длительность шага
+     */
+    public void stepRange(int from, int to, double duration) {
+        MotionIntegrator integrator = this.integrator;
+        MotionController controller = this.controller;
+        double[] state = new double[MotionIntegrator.STATE_SIZE];
+
+        boolean targetChanged = false;
+        for (int i = from; i < to; i++) {
+            targetChanged |= checkWaypoint(i);
+        }
+        controller.computeCommands(positionX, positionY, direction, targetX, targetY, from, to,
+                commandVelocity, commandAngularVelocity);
+
+        ArcKernel kernel = this.kernel;
+        boolean moved = false;
+        if (kernel != null && integrator instanceof ExactArcIntegrator) {
+            kernel.advance(positionX, positionY, direction, commandVelocity, commandAngularVelocity,
+                    from, to, duration, nextX, nextY, nextDirection);
+            for (int i = from; i < to; i++) {
+                if (distance(targetX[i], targetY[i], positionX[i], positionY[i]) >= 0.5) {
+                    publishPosition(i, nextX[i], nextY[i], nextDirection[i]);
+                    moved = true;
+                }
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                readPosition(i, state);
+                state[MotionIntegrator.VELOCITY] = commandVelocity[i];
+                state[MotionIntegrator.ANGULAR_VELOCITY] = commandAngularVelocity[i];
+                moved |= moveRobot(i, targetX[i], targetY[i], duration, integrator, controller, state);
+            }
+        }
+
+        if (moved) {
+            changes.markChanged(ModelChangeChannel.ROBOT_MOVED);
+        }
+        if (targetChanged) {
+            changes.markChanged(ModelChangeChannel.TARGET_CHANGED);
+        }
+    }
+
+    /**
+     * Продвигает всех роботов флота на заданное число шагов длительностью duration.
+     * Результат совпадает с steps вызовами {@link #step(double)} с точностью до округления,
+     * но там, где решение о повороте заведомо не меняется, несколько шагов заменяются
+     * одним аналитическим шагом по дуге окружности.
+     *
+     * @param steps    число шагов
+     * @param duration длительность одного шага
+     */
+    public void fastForward(long steps, double duration) {
+        if (collisions != null) {
+            for (long i = 0; i < steps; i++) {
+                step(duration);
+            }
+            return;
+        }
+
+        fastForwardRange(0, size, steps, duration);
+    }
+
+    /**
+     * Продвигает роботов с индексами из полуинтервала [from, to) на заданное число шагов.
+     * Столкновения не обрабатываются.
+     *
+     * @param from     индекс первого робота (включительно)
+     * @param to       индекс последнего робота (не включительно)
+     * @param steps    число шагов
+     * @param duration длительность одного шага
+     * @see #fastForward(long, double)
+     */
+    public void fastForwardRange(int from, int to, long steps, double duration) {
+        MotionIntegrator integrator = this.integrator;
+        MotionController controller = this.controller;
+        double[] state = new double[MotionIntegrator.STATE_SIZE];
+
+        boolean moved = false;
+        for (int i = from; i < to; i++) {
+            moved |= fastForwardRobot(i, steps, duration, integrator, controller, state);
+        }
+
+        if (moved) {
+            changes.markChanged(ModelChangeChannel.ROBOT_MOVED);
+        }
+    }
+
+    /**
+     * Продвигает одного робота на заданное число шагов, объединяя шаги с одинаковой командой.
+     * На объединённых шагах команда постоянна, поэтому они проходятся точной дугой
+     * {@link ExactArcIntegrator} при любом выбранном интеграторе; одиночные шаги проходятся
+     * выбранным интегратором.
+     *
+     * @param index      индекс робота
+     * @param steps      число шагов
+     * @param duration   длительность одного шага
+     * @param integrator интегратор одиночных шагов
+     * @param controller контроллер движения
+     * @param state      рабочий массив состояния
+     * @return true, если робот сдвинулся
+     */
+    private boolean fastForwardRobot(int index, long steps, double duration,
+                                     MotionIntegrator integrator, MotionController controller, double[] state) {
+        boolean moved = false;
+        long remaining = steps;
+
+        while (remaining > 0) {
+            if (checkWaypoint(index)) {
+                changes.markChanged(ModelChangeChannel.TARGET_CHANGED);
+            }
+            int robotTargetX = targetX[index];
+            int robotTargetY = targetY[index];
+            long merged = Math.min(remaining, safeSteps(index, duration, controller));
+
+            readPosition(index, state);
+            controller.command(state, robotTargetX, robotTargetY);
+            if (!moveRobot(index, robotTargetX, robotTargetY, merged * duration,
+                    merged == 1 ? integrator : exactArc, controller, state)) {
+                break;
+            }
+            moved = true;
+            remaining -= merged;
+        }
+
+        return moved;
+    }
+
+    /**
+     * Оценивает, сколько шагов подряд робот гарантированно сделает с той же командой,
+     * что и на текущем шаге (по горизонту решения контроллера
+     * {@link MotionController#decisionHorizon(double, double, double, double, double)}),
+     * и не приблизится к цели ближе чем на 0.5 (к промежуточной точке маршрута - ближе
+     * радиуса её достижения). Когда горизонт короче шага, шаги выполняются по одному.
+     *
+     * @param index      индекс робота
+     * @param duration   длительность одного шага
+     * @param controller контроллер движения
+     * @return число шагов, не меньше 1
+     */
+    private long safeSteps(int index, double duration, MotionController controller) {
+        double robotX = positionX[index];
+        double robotY = positionY[index];
+        double distance = distance(targetX[index], targetY[index], robotX, robotY);
+
+        double stepLength = maxVelocity * duration;
+        if (distance < 0.5 || stepLength <= 0) {
+            return 1;
+        }
+
+        double horizon = controller.decisionHorizon(robotX, robotY, direction[index],
+                targetX[index], targetY[index]);
+
+        long byAngle = (long) (horizon / duration);
+        long byDistance = (long) ((distance - Math.max(0.5, arrivalRadius[index])) / stepLength);
+
+        return Math.max(1, Math.min(byAngle, byDistance));
+    }
+
+    /**
+     * Продвигает одного робота к указанной точке на заданное время текущим интегратором.
+     * Канал оповещений не затрагивается: об изменении сообщает вызывающий код.
+     *
+     * @param index    индекс робота
+     * @param targetX  позиция точки по оси X
+     * @param targetY  позиция точки по оси Y
+     * @param duration длительность шага
+     * @return true, если робот сдвинулся; false, если он уже находится у точки
+     */
+    public boolean moveRobot(int index, double targetX, double targetY, double duration) {
+        MotionController controller = this.controller;
+        double[] state = new double[MotionIntegrator.STATE_SIZE];
+        readPosition(index, state);
+        controller.command(state, targetX, targetY);
+        return moveRobot(index, targetX, targetY, duration, integrator, controller, state);
+    }
+
+    /**
+     * Копирует позицию и направление робота в массив состояния.
+     *
+     * @param index индекс робота
+     * @param state массив состояния длиной {@link MotionIntegrator#STATE_SIZE}
+     */
+    private void readPosition(int index, double[] state) {
+        state[MotionIntegrator.X] = positionX[index];
+        state[MotionIntegrator.Y] = positionY[index];
+        state[MotionIntegrator.DIRECTION] = direction[index];
+    }
+
+    /**
+     * Продвигает одного робота заданным интегратором и публикует новую позицию.
+     *
+     * @param index      индекс робота
+     * @param targetX    позиция точки по оси X
+     * @param targetY    позиция точки по оси Y
+     * @param duration   длительность шага
+     * @param integrator интегратор движения
+     * @param controller контроллер движения
+     * @param state      позиция, направление и команда робота (см. {@link MotionIntegrator})
+     * @return true, если робот сдвинулся
+     */
+    private boolean moveRobot(int index, double targetX, double targetY, double duration,
+                              MotionIntegrator integrator, MotionController controller, double[] state) {
+        if (!integrator.integrate(state, targetX, targetY, duration, controller)) {
+            return false;
+        }
+
+        publishPosition(index, state[MotionIntegrator.X], state[MotionIntegrator.Y], state[MotionIntegrator.DIRECTION]);
+        return true;
+    }
+
+    /**
+     * Записывает новую позицию и направление робота под версией и переносит его в индексе позиций.
+     *
+     * @param index        индекс робота
+     * @param x            новая позиция по оси X
+     * @param y            новая позиция по оси Y
+     * @param newDirection новое направление в радианах
+     */
+    private void publishPosition(int index, double x, double y, double newDirection) {
+        long version = beginPositionWrite(index);
+        positionX[index] = x;
+        positionY[index] = y;
+        direction[index] = newDirection;
+        endPositionWrite(index, version);
+
+        SpatialGrid grid = robotGrid;
+        if (grid != null) {
+            grid.move(index, x, y);
+        }
+    }
+
+    /**
+     * Сдвигает робота на заданный вектор, не меняя направления (ответ на столкновение).
+     *
+     * @param index индекс робота
+     * @param dx    сдвиг по оси X
+     * @param dy    сдвиг по оси Y
+     */
+    void displace(int index, double dx, double dy) {
+        double x = positionX[index] + dx;
+        double y = positionY[index] + dy;
+
+        long version = beginPositionWrite(index);
+        positionX[index] = x;
+        positionY[index] = y;
+        endPositionWrite(index, version);
+
+        SpatialGrid grid = robotGrid;
+        if (grid != null) {
+            grid.move(index, x, y);
+        }
+    }
+
+    /**
+     * Делает версию позиции робота нечётной перед записью позиции и направления.
+     * Вызывается только потоком, который продвигает этого робота.
+     *
+     * @param index индекс робота
+     * @return версия позиции до начала записи
+     */
+    long beginPositionWrite(int index) {
+        long version = positionVersions[index];
+        VERSIONS.setOpaque(positionVersions, index, version + 1);
+        VarHandle.storeStoreFence();
+        return version;
+    }
+
+    /**
+     * Публикует записанные позицию и направление, делая версию снова чётной.
+     *
+     * @param index   индекс робота
+     * @param version версия, возвращённая {@link #beginPositionWrite(int)}
+     */
+    void endPositionWrite(int index, long version) {
+        VERSIONS.setRelease(positionVersions, index, version + 2);
+    }
+
+    static double distance(double x1, double y1, double x2, double y2)
+    {
+        double diffX = x1 - x2;
+        double diffY = y1 - y2;
+        return Math.sqrt(diffX * diffX + diffY * diffY);
+    }
+
+    static double angleTo(double fromX, double fromY, double toX, double toY)
+    {
+        double diffX = toX - fromX;
+        double diffY = toY - fromY;
+
+        return asNormalizedRadians(Math.atan2(diffY, diffX));
+    }
+
+    static double applyLimits(double value, double min, double max)
+    {
+        if (value < min)
+            return min;
+        if (value > max)
+            return max;
+        return value;
+    }
+
+    static double asNormalizedRadians(double angle)
+    {
+        while (angle < 0)
+        {
+            angle += 2*Math.PI;
+        }
+        while (angle >= 2*Math.PI)
+        {
+            angle -= 2*Math.PI;
+        }
+        return angle;
+    }
+
+    /**
+     * Очередь точек маршрута робота в кольцевом буфере из двух примитивных массивов.
+     * Очередь создаётся один раз на робота и переиспользуется; она читается и изменяется
+     * только под захватом цели робота.
+     */
+    private static final class WaypointQueue {
+        int[] xs = new int[8];
+        int[] ys = new int[8];
+        int head;
+        int size;
+        double radius = 0.5;
+        ObstacleMap map;
+
+        void add(int x, int y) {
+            ensureCapacity(size + 1);
+            int tail = (head + size) % xs.length;
+            xs[tail] = x;
+            ys[tail] = y;
+            size++;
+        }
+
+        void addAll(int[] fromX, int[] fromY, int offset, int count) {
+            ensureCapacity(size + count);
+            int tail = (head + size) % xs.length;
+            int first = Math.min(count, xs.length - tail);
+            System.arraycopy(fromX, offset, xs, tail, first);
+            System.arraycopy(fromY, offset, ys, tail, first);
+            System.arraycopy(fromX, offset + first, xs, 0, count - first);
+            System.arraycopy(fromY, offset + first, ys, 0, count - first);
+            size += count;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= xs.length) {
+                return;
+            }
+
+            int length = Math.max(capacity, xs.length * 2);
+            int[] newXs = new int[length];
+            int[] newYs = new int[length];
+            for (int i = 0; i < size; i++) {
+                newXs[i] = xs[(head + i) % xs.length];
+                newYs[i] = ys[(head + i) % xs.length];
+            }
+            xs = newXs;
+            ys = newYs;
+            head = 0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package model;
+
+/**
+ * Класс RobotState - согласованный снимок состояния одного робота:
+ * позиция, направление и цель, прочитанные на один и тот же момент.
+ * <p>
+ * Объект изменяемый и предназначен для повторного использования: читатель заводит его один раз
+ * и передаёт в {@link RobotFleet#readState(int, RobotState)} при каждом чтении,
+ * поэтому чтение не создаёт объектов.
+ */
+public class RobotState {
+    private double x;
+    private double y;
+    private double direction;
+    private int targetX;
+    private int targetY;
+
+    void set(double x, double y, double direction, int targetX, int targetY) {
+        this.x = x;
+        this.y = y;
+        this.direction = direction;
+        this.targetX = targetX;
+        this.targetY = targetY;
+    }
+
+    /**
+     * Возвращает позицию робота по оси X.
+     *
+     * @return позиция робота по оси X
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Возвращает позицию робота по оси Y.
+     *
+     * @return позиция робота по оси Y
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Возвращает угол направления робота в радианах.
+     *
+     * @return угол направления робота в радианах
+     */
+    public double getDirection() {
+        return direction;
+    }
+
+    /**
+     * Возвращает позицию цели по оси X.
+     *
+     * @return позиция цели по оси X
+     */
+    public int getTargetX() {
+        return targetX;
+    }
+
+    /**
+     * Возвращает позицию цели по оси Y.
+     *
+     * @return позиция цели по оси Y
+     */
+    public int getTargetY() {
+        return targetY;
+    }
+}
@@ -0,0 +1,201 @@
+package model;
+
+import log.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Класс RoutePlanner превращает цель робота в маршрут в обход препятствий карты.
+ * <p>
+ * Поиск пути выполняется в отдельном потоке планировщика, поэтому долгое планирование
+ * не задерживает шаги модели: робот едет к прежней цели, пока маршрут не будет готов,
+ * после чего маршрут передаётся флоту через {@link RobotFleet#setRoute(int, int[], int[], double, ObstacleMap)}.
+ * Если для робота запрошен новый маршрут раньше, чем готов прежний, прежний отбрасывается.
+ * <p>
+ * Промежуточная точка маршрута считается достигнутой на половине радиуса разворота, но только
+ * если из ячейки робота видна следующая точка, поэтому робот не срезает углы через занятые ячейки.
+ * Цель в занятой ячейке заменяется центром ближайшей свободной ячейки; если путь к цели
+ * всё же не найден, об этом сообщается в журнал ошибок.
+ * <p>
+ * Найденные пути кешируются по паре (начальная ячейка, целевая ячейка); при переполнении
+ * вытесняется путь, который дольше всех не использовался.
+ */
+public class RoutePlanner {
+    /**
+     * Число путей в кеше по умолчанию.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    /**
+     * Радиус разворота робота. Точку ближе этого радиуса сбоку от себя робот объезжает по кругу,
+     * поэтому промежуточная точка маршрута считается достигнутой уже на половине этого радиуса,
+     * если из ячейки робота видна следующая точка.
+     */
+    private static final double turningRadius = RobotFleet.maxVelocity / RobotFleet.maxAngularVelocity;
+
+    private final RobotFleet fleet;
+    private final ObstacleMap map;
+    private final PathPlanner planner;
+    private final ExecutorService executor;
+    private final AtomicLongArray requests;
+
+    private final Object synchronizedObject = new Object();
+    private final Map<Long, int[]> cache;
+
+    private volatile long cacheHits;
+    private volatile long cacheMisses;
+
+    /**
+     * Создает планировщик маршрутов с кешем размера по умолчанию.
+     *
+     * @param fleet флот, роботам которого назначаются маршруты
+     * @param map   карта препятствий
+     */
+    public RoutePlanner(RobotFleet fleet, ObstacleMap map) {
+        this(fleet, map, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Создает планировщик маршрутов.
+     *
+     * @param fleet     флот, роботам которого назначаются маршруты
+     * @param map       карта препятствий
+     * @param cacheSize наибольшее число путей в кеше
+     */
+    public RoutePlanner(RobotFleet fleet, ObstacleMap map, int cacheSize) {
+        this.fleet = fleet;
+        this.map = map;
+        this.planner = new PathPlanner(map);
+        this.requests = new AtomicLongArray(fleet.capacity());
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "route planner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Возвращает карту препятствий.
+     *
+     * @return карта препятствий
+     */
+    public ObstacleMap getMap() {
+        return map;
+    }
+
+    /**
+     * Возвращает число запросов пути, найденных в кеше.
+     *
+     * @return число попаданий в кеш
+     */
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Возвращает число запросов пути, для которых потребовался поиск.
+     *
+     * @return число промахов кеша
+     */
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /**
+     * Запрашивает маршрут робота к цели. Метод не ждёт окончания планирования.
+     * Если начало или цель лежат за пределами карты, робот направляется к цели напрямую.
+     *
+     * @param index   индекс робота
+     * @param targetX позиция цели по оси X
+     * @param targetY позиция цели по оси Y
+     */
+    public void planRoute(int index, int targetX, int targetY) {
+        long request = requests.incrementAndGet(index);
+        executor.execute(() -> plan(index, targetX, targetY, request));
+    }
+
+    /**
+     * Останавливает поток планировщика. Незавершённые запросы отбрасываются.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void plan(int index, int targetX, int targetY, long request) {
+        if (requests.get(index) != request) {
+            return;
+        }
+
+        int start = map.cellAt(fleet.getX(index), fleet.getY(index));
+        int goal = map.cellAt(targetX, targetY);
+        if (start < 0 || goal < 0) {
+            fleet.setTarget(index, targetX, targetY);
+            return;
+        }
+        if (map.isBlocked(goal)) {
+            int free = map.nearestFreeCell(goal);
+            if (free < 0) {
+                Logger.error("Маршрут к точке (" + targetX + ", " + targetY + ") не найден: на карте нет свободных ячеек");
+                return;
+            }
+            Logger.debug("Точка (" + targetX + ", " + targetY + ") занята препятствием, цель перенесена в ближайшую свободную ячейку");
+            goal = free;
+            targetX = (int) map.centerX(goal);
+            targetY = (int) map.centerY(goal);
+        }
+
+        int[] path = findPath(start, goal);
+        if (requests.get(index) != request) {
+            return;
+        }
+        if (path == null) {
+            Logger.error("Маршрут к точке (" + targetX + ", " + targetY + ") не найден: точка недостижима");
+            return;
+        }
+
+        // точки маршрута - центры ячеек пути, а вместо центра целевой ячейки - сама цель
+        int count = Math.max(1, path.length);
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        for (int i = 0; i < count - 1; i++) {
+            xs[i] = (int) map.centerX(path[i]);
+            ys[i] = (int) map.centerY(path[i]);
+        }
+        xs[count - 1] = targetX;
+        ys[count - 1] = targetY;
+
+        fleet.setRoute(index, xs, ys, Math.max(map.getCellSize() / 2, turningRadius / 2), map);
+    }
+
+    private int[] findPath(int start, int goal) {
+        Long key = ((long) start << 32) | (goal & 0xFFFFFFFFL);
+
+        synchronized (synchronizedObject) {
+            int[] cached = cache.get(key);
+            if (cached != null) {
+                cacheHits++;
+                return cached;
+            }
+        }
+
+        int[] path = planner.findPath(start, goal);
+        cacheMisses++;
+
+        if (path != null) {
+            synchronized (synchronizedObject) {
+                cache.put(key, path);
+            }
+        }
+        return path;
+    }
+}
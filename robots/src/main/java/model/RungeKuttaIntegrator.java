@@ -0,0 +1,73 @@
+package model;
+
+/**
+ * Класс RungeKuttaIntegrator продвигает робота классическим методом Рунге-Кутты 4-го порядка.
+ * В отличие от {@link ExactArcIntegrator} команда контроллера пересматривается в каждой
+ * из четырёх промежуточных точек шага, поэтому смена решения внутри шага учитывается
+ * приближённо, а не откладывается до следующего шага.
+ */
+public class RungeKuttaIntegrator implements MotionIntegrator {
+    @Override
+    public boolean integrate(double[] state, double targetX, double targetY, double duration,
+                             MotionController controller) {
+        double x = state[X];
+        double y = state[Y];
+        double direction = state[DIRECTION];
+
+        if (RobotFleet.distance(targetX, targetY, x, y) < 0.5) {
+            return false;
+        }
+
+        double half = duration / 2;
+
+        double d1 = direction;
+        double v1 = state[VELOCITY];
+        double w1 = state[ANGULAR_VELOCITY];
+
+        double x2 = x + half * v1 * Math.cos(d1);
+        double y2 = y + half * v1 * Math.sin(d1);
+        double d2 = direction + half * w1;
+        double v2 = command(state, x2, y2, d2, targetX, targetY, controller);
+        double w2 = state[ANGULAR_VELOCITY];
+
+        double x3 = x + half * v2 * Math.cos(d2);
+        double y3 = y + half * v2 * Math.sin(d2);
+        double d3 = direction + half * w2;
+        double v3 = command(state, x3, y3, d3, targetX, targetY, controller);
+        double w3 = state[ANGULAR_VELOCITY];
+
+        double x4 = x + duration * v3 * Math.cos(d3);
+        double y4 = y + duration * v3 * Math.sin(d3);
+        double d4 = direction + duration * w3;
+        double v4 = command(state, x4, y4, d4, targetX, targetY, controller);
+        double w4 = state[ANGULAR_VELOCITY];
+
+        double sixth = duration / 6;
+        state[X] = x + sixth
+                * (v1 * Math.cos(d1) + 2 * v2 * Math.cos(d2) + 2 * v3 * Math.cos(d3) + v4 * Math.cos(d4));
+        state[Y] = y + sixth
+                * (v1 * Math.sin(d1) + 2 * v2 * Math.sin(d2) + 2 * v3 * Math.sin(d3) + v4 * Math.sin(d4));
+        state[DIRECTION] = RobotFleet.asNormalizedRadians(direction + sixth * (w1 + 2 * w2 + 2 * w3 + w4));
+
+        return true;
+    }
+
+    /**
+     * Вычисляет команду контроллера в промежуточной точке, используя массив состояния как рабочий.
+     *
+     * @return линейная скорость; угловая остаётся в элементе {@link #ANGULAR_VELOCITY}
+     */
+    private static double command(double[] state, double x, double y, double direction,
+                                  double targetX, double targetY, MotionController controller) {
+        state[X] = x;
+        state[Y] = y;
+        state[DIRECTION] = direction;
+        controller.command(state, targetX, targetY);
+        return state[VELOCITY];
+    }
+
+    @Override
+    public String toString() {
+        return "rk4";
+    }
+}
@@ -0,0 +1,46 @@
+package model;
+
+/**
+ * Класс ScalarArcKernel - скалярное ядро {@link ArcKernel}: по роботу за итерацию,
+ * с той же арифметикой, что и {@link ExactArcIntegrator}.
+ */
+final class ScalarArcKernel implements ArcKernel {
+    static final ScalarArcKernel INSTANCE = new ScalarArcKernel();
+
+    private ScalarArcKernel() {
+    }
+
+    @Override
+    public void advance(double[] xs, double[] ys, double[] directions, double[] velocities, double[] angularVelocities,
+                        int from, int to, double duration, double[] outXs, double[] outYs, double[] outDirections) {
+        for (int i = from; i < to; i++) {
+            double robotX = xs[i];
+            double robotY = ys[i];
+            double robotDirection = directions[i];
+            double velocity = velocities[i];
+            double angularVelocity = angularVelocities[i];
+
+            double newX = robotX + velocity / angularVelocity *
+                    (Math.sin(robotDirection + angularVelocity * duration) -
+                            Math.sin(robotDirection));
+            if (!Double.isFinite(newX)) {
+                newX = robotX + velocity * duration * Math.cos(robotDirection);
+            }
+            double newY = robotY - velocity / angularVelocity *
+                    (Math.cos(robotDirection + angularVelocity * duration) -
+                            Math.cos(robotDirection));
+            if (!Double.isFinite(newY)) {
+                newY = robotY + velocity * duration * Math.sin(robotDirection);
+            }
+
+            outXs[i] = newX;
+            outYs[i] = newY;
+            outDirections[i] = RobotFleet.asNormalizedRadians(robotDirection + angularVelocity * duration);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "scalar";
+    }
+}
@@ -0,0 +1,389 @@
+package model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Класс SpatialGrid - пространственный индекс точек на неограниченной плоскости в виде
+ * равномерной сетки квадратных ячеек. Ячейки не хранятся явно: ячейка (cx, cy) отображается
+ * хешем в одну из корзин таблицы, а точки одной корзины связаны в двусвязный список
+ * массивами next/prev, поэтому индекс не создаёт объектов при перемещении точек. Запросы тоже
+ * не создают объектов: служебные массивы поиска ближайших точек хранятся в индексе и
+ * переиспользуются под его блокировкой, а растут, только когда запрошено больше точек, чем раньше.
+ * <p>
+ * Индекс поддерживается инкрементально: {@link #move(int, double, double)} только запоминает
+ * новые координаты, пока точка остаётся в своей ячейке, и переносит её в список другой ячейки,
+ * лишь когда точка пересекла границу. Запросы просматривают только ячейки, пересекающие область
+ * запроса, и отбрасывают точки чужих ячеек, попавших в ту же корзину. Если область запроса
+ * покрывает больше ячеек, чем корзин в таблице, точки перебираются подряд.
+ * <p>
+ * Перенос точки между ячейками и запросы выполняются под блокировкой; перемещения внутри ячейки
+ * блокировку не берут, поэтому запрос, выполняемый во время шага модели, может увидеть часть
+ * точек уже в новых позициях. Каждую точку в каждый момент должен перемещать только один поток.
+ */
+public class SpatialGrid {
+    private static final int NONE = -1;
+
+    private final double cellSize;
+    private final double inverseCellSize;
+    private final int[] heads;
+    private final int mask;
+
+    private final int[] next;
+    private final int[] prev;
+    private final int[] cellX;
+    private final int[] cellY;
+    private final double[] pointX;
+    private final double[] pointY;
+    private final boolean[] present;
+    private int size;
+
+    private final int[] picked = new int[1];
+    private double[] distances = new double[1];
+
+    private final Object synchronizedObject = new Object();
+
+    /**
+     * Создает пустой индекс.
+     *
+     * @param capacity наибольший идентификатор точки плюс один
+     * @param cellSize сторона ячейки сетки; лучше всего подходит размер порядка
+     *                 типичного радиуса запроса
+     * @throws IllegalArgumentException если сторона ячейки не положительна
+     */
+    public SpatialGrid(int capacity, double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("cellSize must be positive");
+        }
+
+        this.cellSize = cellSize;
+        this.inverseCellSize = 1 / cellSize;
+
+        int buckets = Integer.highestOneBit(Math.max(16, capacity) * 2 - 1);
+        heads = new int[buckets];
+        Arrays.fill(heads, NONE);
+        mask = buckets - 1;
+
+        next = new int[capacity];
+        prev = new int[capacity];
+        cellX = new int[capacity];
+        cellY = new int[capacity];
+        pointX = new double[capacity];
+        pointY = new double[capacity];
+        present = new boolean[capacity];
+    }
+
+    /**
+     * Возвращает сторону ячейки сетки.
+     *
+     * @return сторона ячейки
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Возвращает число точек в индексе.
+     *
+     * @return число точек
+     */
+    public int size() {
+        synchronized (synchronizedObject) {
+            return size;
+        }
+    }
+
+    /**
+     * Добавляет точку в индекс. Если точка уже есть, она перемещается.
+     *
+     * @param id идентификатор точки
+     * @param x  позиция по оси X
+     * @param y  позиция по оси Y
+     */
+    public void insert(int id, double x, double y) {
+        synchronized (synchronizedObject) {
+            if (present[id]) {
+                unlink(id);
+            } else {
+                present[id] = true;
+                size++;
+            }
+            pointX[id] = x;
+            pointY[id] = y;
+            link(id, cell(x), cell(y));
+        }
+    }
+
+    /**
+     * Сообщает индексу новую позицию точки, уже добавленной в индекс.
+     *
+     * @param id идентификатор точки
+     * @param x  новая позиция по оси X
+     * @param y  новая позиция по оси Y
+     */
+    public void move(int id, double x, double y) {
+        int newCellX = cell(x);
+        int newCellY = cell(y);
+
+        if (newCellX == cellX[id] && newCellY == cellY[id]) {
+            pointX[id] = x;
+            pointY[id] = y;
+            return;
+        }
+
+        synchronized (synchronizedObject) {
+            unlink(id);
+            pointX[id] = x;
+            pointY[id] = y;
+            link(id, newCellX, newCellY);
+        }
+    }
+
+    /**
+     * Вызывает обработчик для каждой точки в прямоугольнике (границы включаются).
+     * Обработчик вызывается под блокировкой индекса и не должен изменять индекс.
+     *
+     * @param minX    левая граница
+     * @param minY    верхняя граница
+     * @param maxX    правая граница
+     * @param maxY    нижняя граница
+     * @param visitor обработчик идентификаторов найденных точек
+     */
+    public void forEachInRange(double minX, double minY, double maxX, double maxY, IntConsumer visitor) {
+        visit(minX, minY, maxX, maxY, 0, 0, Double.POSITIVE_INFINITY, visitor);
+    }
+
+    /**
+     * Вызывает обработчик для каждой точки не дальше заданного расстояния от центра.
+     * Обработчик вызывается под блокировкой индекса и не должен изменять индекс.
+     *
+     * @param x       центр по оси X
+     * @param y       центр по оси Y
+     * @param radius  радиус
+     * @param visitor обработчик идентификаторов найденных точек
+     */
+    public void forEachInRadius(double x, double y, double radius, IntConsumer visitor) {
+        visit(x - radius, y - radius, x + radius, y + radius, x, y, radius * radius, visitor);
+    }
+
+    /**
+     * Обходит точки прямоугольника, которые не дальше sqrt(radiusSquared) от точки (x, y).
+     */
+    private void visit(double minX, double minY, double maxX, double maxY,
+                       double x, double y, double radiusSquared, IntConsumer visitor) {
+        synchronized (synchronizedObject) {
+            int fromX = cell(minX);
+            int toX = cell(maxX);
+            int fromY = cell(minY);
+            int toY = cell(maxY);
+
+            if ((double) (toX - fromX + 1) * (toY - fromY + 1) > heads.length) {
+                for (int id = 0; id < present.length; id++) {
+                    if (present[id] && inRange(id, minX, minY, maxX, maxY)
+                            && distanceSquared(id, x, y) <= radiusSquared) {
+                        visitor.accept(id);
+                    }
+                }
+                return;
+            }
+
+            for (int cy = fromY; cy <= toY; cy++) {
+                for (int cx = fromX; cx <= toX; cx++) {
+                    for (int id = heads[bucket(cx, cy)]; id != NONE; id = next[id]) {
+                        if (cellX[id] == cx && cellY[id] == cy && inRange(id, minX, minY, maxX, maxY)
+                                && distanceSquared(id, x, y) <= radiusSquared) {
+                            visitor.accept(id);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Находит точку, ближайшую к заданной, не дальше заданного расстояния
+     * (например, робота под указателем мыши).
+     *
+     * @param x      позиция по оси X
+     * @param y      позиция по оси Y
+     * @param radius наибольшее расстояние
+     * @return идентификатор ближайшей точки или -1, если в радиусе точек нет
+     */
+    public int pick(double x, double y, double radius) {
+        synchronized (synchronizedObject) {
+            if (nearest(x, y, 1, picked) == 0 || distanceSquared(picked[0], x, y) > radius * radius) {
+                return NONE;
+            }
+            return picked[0];
+        }
+    }
+
+    /**
+     * Находит k точек, ближайших к заданной. Ячейки просматриваются кольцами вокруг ячейки
+     * заданной точки, пока следующее кольцо не окажется дальше k-й найденной точки.
+     *
+     * @param x    позиция по оси X
+     * @param y    позиция по оси Y
+     * @param k    число искомых точек
+     * @param into массив длиной не меньше k, в который записываются идентификаторы точек
+     *             в порядке возрастания расстояния
+     * @return число найденных точек: k или меньше, если в индексе меньше k точек
+     */
+    public int nearest(double x, double y, int k, int[] into) {
+        if (k <= 0) {
+            return 0;
+        }
+
+        synchronized (synchronizedObject) {
+            if (distances.length < k) {
+                distances = new double[k];
+            }
+            double[] distances = this.distances;
+            int found = 0;
+            int visited = 0;
+            int centerX = cell(x);
+            int centerY = cell(y);
+
+            for (int ring = 0; visited < size; ring++) {
+                if ((double) (2 * ring + 1) * (2 * ring + 1) > heads.length) {
+                    found = 0;
+                    for (int id = 0; id < present.length; id++) {
+                        if (present[id]) {
+                            found = offer(into, distances, found, k, id, distanceSquared(id, x, y));
+                        }
+                    }
+                    break;
+                }
+
+                for (int cy = centerY - ring; cy <= centerY + ring; cy++) {
+                    boolean edgeRow = cy == centerY - ring || cy == centerY + ring;
+                    int stepX = edgeRow ? 1 : 2 * ring;
+                    for (int cx = centerX - ring; cx <= centerX + ring; cx += Math.max(1, stepX)) {
+                        for (int id = heads[bucket(cx, cy)]; id != NONE; id = next[id]) {
+                            if (cellX[id] == cx && cellY[id] == cy) {
+                                visited++;
+                                found = offer(into, distances, found, k, id, distanceSquared(id, x, y));
+                            }
+                        }
+                    }
+                }
+
+                if (found == k) {
+                    double border = Math.min(
+                            Math.min(x - (centerX - ring) * cellSize, (centerX + ring + 1) * cellSize - x),
+                            Math.min(y - (centerY - ring) * cellSize, (centerY + ring + 1) * cellSize - y));
+                    if (distances[0] <= border * border) {
+                        break;
+                    }
+                }
+            }
+
+            sortHeap(into, distances, found);
+            return found;
+        }
+    }
+
+    /**
+     * Предлагает точку в кучу k ближайших: массивы ids/distances образуют кучу
+     * с наибольшим расстоянием в корне.
+     */
+    private static int offer(int[] ids, double[] distances, int found, int k, int id, double distance) {
+        if (found < k) {
+            int child = found;
+            while (child > 0) {
+                int parent = (child - 1) >>> 1;
+                if (distances[parent] >= distance) {
+                    break;
+                }
+                ids[child] = ids[parent];
+                distances[child] = distances[parent];
+                child = parent;
+            }
+            ids[child] = id;
+            distances[child] = distance;
+            return found + 1;
+        }
+
+        if (distance < distances[0]) {
+            siftDown(ids, distances, 0, found, id, distance);
+        }
+        return found;
+    }
+
+    private static void siftDown(int[] ids, double[] distances, int parent, int length, int id, double distance) {
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= length) {
+                break;
+            }
+            if (child + 1 < length && distances[child + 1] > distances[child]) {
+                child++;
+            }
+            if (distances[child] <= distance) {
+                break;
+            }
+            ids[parent] = ids[child];
+            distances[parent] = distances[child];
+            parent = child;
+        }
+        ids[parent] = id;
+        distances[parent] = distance;
+    }
+
+    /**
+     * Сортирует кучу по возрастанию расстояния на месте.
+     */
+    private static void sortHeap(int[] ids, double[] distances, int length) {
+        for (int end = length - 1; end > 0; end--) {
+            int id = ids[end];
+            double distance = distances[end];
+            ids[end] = ids[0];
+            distances[end] = distances[0];
+            siftDown(ids, distances, 0, end, id, distance);
+        }
+    }
+
+    private boolean inRange(int id, double minX, double minY, double maxX, double maxY) {
+        double x = pointX[id];
+        double y = pointY[id];
+        return x >= minX && x <= maxX && y >= minY && y <= maxY;
+    }
+
+    private double distanceSquared(int id, double x, double y) {
+        double diffX = pointX[id] - x;
+        double diffY = pointY[id] - y;
+        return diffX * diffX + diffY * diffY;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate * inverseCellSize);
+    }
+
+    private int bucket(int cx, int cy) {
+        int hash = cx * 0x9E3779B1 + cy * 0x85EBCA77;
+        return (hash ^ (hash >>> 15)) & mask;
+    }
+
+    private void link(int id, int cx, int cy) {
+        int bucket = bucket(cx, cy);
+        cellX[id] = cx;
+        cellY[id] = cy;
+        prev[id] = NONE;
+        next[id] = heads[bucket];
+        if (heads[bucket] != NONE) {
+            prev[heads[bucket]] = id;
+        }
+        heads[bucket] = id;
+    }
+
+    private void unlink(int id) {
+        if (prev[id] != NONE) {
+            next[prev[id]] = next[id];
+        } else {
+            heads[bucket(cellX[id], cellY[id])] = next[id];
+        }
+        if (next[id] != NONE) {
+            prev[next[id]] = prev[id];
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package model;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Класс VectorArcKernel - векторное ядро {@link ArcKernel} на {@code jdk.incubator.vector}:
+ * роботы обрабатываются группами по числу линий предпочтительного вида вектора, остаток
+ * отрезка - той же группой под маской линий. Поэтому каждый робот вычисляется одной и той же
+ * векторной арифметикой, где бы ни начинался отрезок, и результат не зависит от деления флота
+ * на отрезки (например, в {@link ParallelFleetStepper}). Обе ветви формулы (дуга и прямая при нулевой угловой скорости)
+ * вычисляются во всех линиях и смешиваются по маске, как выбор по {@code Double.isFinite}
+ * в скалярном ядре. Направление нормализуется одним прибавлением или вычитанием 2*PI;
+ * линии, которым этого мало, дописываются скалярной нормализацией.
+ * <p>
+ * Класс загружается только через {@link ArcKernel#vector()} и только при загруженном модуле.
+ */
+final class VectorArcKernel implements ArcKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double TWO_PI = 2 * Math.PI;
+
+    VectorArcKernel() {
+    }
+
+    @Override
+    public void advance(double[] xs, double[] ys, double[] directions, double[] velocities, double[] angularVelocities,
+                        int from, int to, double duration, double[] outXs, double[] outYs, double[] outDirections) {
+        int length = SPECIES.length();
+        int i = from;
+        for (; i <= to - length; i += length) {
+            advance(xs, ys, directions, velocities, angularVelocities, i, null, duration, outXs, outYs, outDirections);
+        }
+        if (i < to) {
+            advance(xs, ys, directions, velocities, angularVelocities, i, SPECIES.indexInRange(i, to),
+                    duration, outXs, outYs, outDirections);
+        }
+    }
+
+    /**
+     * Продвигает группу роботов, начиная с индекса {@code i}. Если задана маска, читаются
+     * и записываются только её линии; вычисления в линиях те же, что и без маски.
+     */
+    private static void advance(double[] xs, double[] ys, double[] directions, double[] velocities,
+                                double[] angularVelocities, int i, VectorMask<Double> lanes, double duration,
+                                double[] outXs, double[] outYs, double[] outDirections) {
+        DoubleVector x = load(xs, i, lanes);
+        DoubleVector y = load(ys, i, lanes);
+        DoubleVector direction = load(directions, i, lanes);
+        DoubleVector velocity = load(velocities, i, lanes);
+        DoubleVector angularVelocity = load(angularVelocities, i, lanes);
+
+        DoubleVector newDirection = direction.add(angularVelocity.mul(duration));
+        DoubleVector sin = direction.lanewise(VectorOperators.SIN);
+        DoubleVector cos = direction.lanewise(VectorOperators.COS);
+        DoubleVector radius = velocity.div(angularVelocity);
+        DoubleVector path = velocity.mul(duration);
+
+        DoubleVector arcX = newDirection.lanewise(VectorOperators.SIN).sub(sin).fma(radius, x);
+        DoubleVector lineX = path.fma(cos, x);
+        DoubleVector newX = arcX.blend(lineX, arcX.test(VectorOperators.IS_FINITE).not());
+
+        DoubleVector arcY = radius.neg().fma(newDirection.lanewise(VectorOperators.COS).sub(cos), y);
+        DoubleVector lineY = path.fma(sin, y);
+        DoubleVector newY = arcY.blend(lineY, arcY.test(VectorOperators.IS_FINITE).not());
+
+        newDirection = newDirection.add(TWO_PI, newDirection.lt(0));
+        newDirection = newDirection.sub(TWO_PI, newDirection.compare(VectorOperators.GE, TWO_PI));
+
+        store(newX, outXs, i, lanes);
+        store(newY, outYs, i, lanes);
+        store(newDirection, outDirections, i, lanes);
+
+        VectorMask<Double> outside = newDirection.lt(0).or(newDirection.compare(VectorOperators.GE, TWO_PI));
+        if (lanes != null) {
+            outside = outside.and(lanes);
+        }
+        if (outside.anyTrue()) {
+            for (int lane = 0; lane < SPECIES.length(); lane++) {
+                if (outside.laneIsSet(lane)) {
+                    outDirections[i + lane] = RobotFleet.asNormalizedRadians(outDirections[i + lane]);
+                }
+            }
+        }
+    }
+
+    private static DoubleVector load(double[] array, int i, VectorMask<Double> lanes) {
+        return lanes == null ? DoubleVector.fromArray(SPECIES, array, i) : DoubleVector.fromArray(SPECIES, array, i, lanes);
+    }
+
+    private static void store(DoubleVector vector, double[] array, int i, VectorMask<Double> lanes) {
+        if (lanes == null) {
+            vector.intoArray(array, i);
+        } else {
+            vector.intoArray(array, i, lanes);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "vector(" + SPECIES.length() + ")";
+    }
+}
@@ -0,0 +1,402 @@
+package notes;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Класс ConcurrentNotes - ограниченная коллекция заметок, аналогичная {@link Notes},
+ * в которой чтение никогда не блокирует запись.
+ * <p>
+ * Писатели (add, pop) выстраиваются в очередь на общем мониторе, поэтому в каждый момент
+ * буфер изменяет только один поток. Читатели монитор не захватывают: каждая ячейка буфера
+ * хранит порядковый номер лежащей в ней заметки и штамп последней записи в ячейку. Штампы
+ * берутся из счётчика, который только растёт, поэтому не повторяются даже тогда, когда
+ * после pop заметка с тем же порядковым номером добавляется снова. Читатель сверяет штамп
+ * до и после чтения номера и значения: изменившийся штамп означает, что ячейку переписали
+ * во время чтения, а чужой номер - что заметка уже вытеснена или удалена.
+ * Методы {@link #read(long, int, List)} и {@link #iterator()} возвращают непрерывный
+ * и согласованный срез коллекции, а вызывающий код может узнать, сколько заметок было потеряно.
+ *
+ * @param <Type> тип элементов в коллекции
+ */
+public class ConcurrentNotes<Type> implements Iterable<Type> {
+    /**
+     * Значение номера пустой ячейки и штампа ячейки, в которую в данный момент ведётся запись.
+     */
+    private static final long EMPTY = -1;
+
+    /**
+     * Результат чтения ячейки, которая не хранит нужную заметку или была переписана во время чтения.
+     */
+    private static final Object STALE = new Object();
+
+    private final AtomicReferenceArray<Type> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray stamps;
+    /**
+     * Число записей в ячейки буфера; следующий штамп ячейки. Изменяется под монитором писателей.
+     */
+    private long writes;
+    private int size = 10;
+    /**
+     * Порядковый номер самой старой заметки в коллекции.
+     */
+    private volatile long head;
+    /**
+     * Порядковый номер, который получит следующая добавленная заметка.
+     */
+    private volatile long tail;
+    private final Object writeLock = new Object();
+
+    /**
+     * Создает новый объект класса ConcurrentNotes с заданным размером.
+     * Если указанный размер превышает 10, устанавливается указанный размер,
+     * в противном случае используется размер по умолчанию (10).
+     *
+     * @param size размер коллекции
+     */
+    public ConcurrentNotes(int size) {
+        if (size > 10)
+            this.size = size;
+
+        elements = new AtomicReferenceArray<>(this.size);
+        sequences = new AtomicLongArray(this.size);
+        stamps = new AtomicLongArray(this.size);
+        for (int i = 0; i < this.size; i++) {
+            sequences.set(i, EMPTY);
+        }
+    }
+
+    /**
+     * Возвращает ёмкость коллекции, то есть наибольшее число хранимых заметок.
+     *
+     * @return ёмкость коллекции
+     */
+    public int capacity() {
+        return size;
+    }
+
+    /**
+     * Проверяет, является ли коллекция пустой.
+     *
+     * @return true, если коллекция пуста, в противном случае - false
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Возвращает количество элементов в коллекции на момент вызова.
+     *
+     * @return количество элементов в коллекции
+     */
+    public int size() {
+        long last = tail;
+        long first = head;
+        return (int) Math.max(0, Math.min(size, last - first));
+    }
+
+    /**
+     * Возвращает порядковый номер самой старой заметки.
+     *
+     * @return порядковый номер самой старой заметки
+     */
+    public long firstSequence() {
+        return head;
+    }
+
+    /**
+     * Возвращает порядковый номер, который получит следующая добавленная заметка.
+     *
+     * @return порядковый номер следующей заметки
+     */
+    public long nextSequence() {
+        return tail;
+    }
+
+    /**
+     * Проверяет, содержит ли коллекция указанный элемент.
+     *
+     * @param o элемент, наличие которого нужно проверить
+     * @return true, если элемент содержится в коллекции, в противном случае - false
+     */
+    public boolean containsValue(Object o) {
+        if (o == null) {
+            return false;
+        }
+
+        for (Type current : this) {
+            if (Objects.equals(o, current)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Добавляет элемент в коллекцию.
+     * Если размер коллекции превышает заданный размер,
+     * самая старая заметка удаляется для освобождения места.
+     *
+     * @param element элемент, который нужно добавить
+     * @return true, если элемент успешно добавлен, в противном случае - false
+     */
+    public boolean add(Type element) {
+        synchronized (writeLock) {
+            long sequence = tail;
+            if (sequence - head == size) {
+                head = sequence - size + 1;
+            }
+
+            write(slot(sequence), sequence, element);
+            tail = sequence + 1;
+
+            return true;
+        }
+    }
+
+    /**
+     * Удаляет и возвращает последний элемент коллекции.
+     *
+     * @return удаленный элемент или null, если коллекция пуста
+     */
+    public Type pop() {
+        synchronized (writeLock) {
+            long sequence = tail - 1;
+            if (sequence < head) {
+                return null;
+            }
+
+            Type returnValue = elements.get(slot(sequence));
+            write(slot(sequence), EMPTY, null);
+            tail = sequence;
+
+            return returnValue;
+        }
+    }
+
+    /**
+     * Возвращает последний элемент коллекции без его удаления.
+     *
+     * @return последний элемент коллекции или null, если коллекция пуста
+     */
+    public Type peek() {
+        while (true) {
+            long sequence = tail - 1;
+            if (sequence < head) {
+                return null;
+            }
+
+            Object value = load(sequence);
+            if (value != STALE) {
+                return cast(value);
+            }
+        }
+    }
+
+    /**
+     * Возвращает элемент коллекции по указанному индексу.
+     * Индекс отсчитывается от самой старой заметки на момент чтения.
+     *
+     * @param index индекс элемента
+     * @return элемент коллекции
+     * @throws IndexOutOfBoundsException если индекс выходит за границы коллекции
+     */
+    public Type get(int index) {
+        while (true) {
+            long first = head;
+            long sequence = first + index;
+            if (index < 0 || sequence >= tail) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            Object value = load(sequence);
+            if (value != STALE) {
+                return cast(value);
+            }
+        }
+    }
+
+    /**
+     * Возвращает сегмент коллекции, начиная с указанного начального индекса
+     * и заканчивая указанным конечным индексом.
+     * Если часть сегмента была вытеснена во время чтения, сегмент сдвигается
+     * к более новым заметкам и может оказаться короче запрошенного.
+     *
+     * @param beginIndex начальный индекс сегмента (включительно)
+     * @param endIndex   конечный индекс сегмента (включительно)
+     * @return список элементов сегмента коллекции
+     * @throws IndexOutOfBoundsException если начальный или конечный индекс выходит за границы коллекции
+     */
+    public List<Type> getSegment(int beginIndex, int endIndex) {
+        if (beginIndex < 0 || endIndex > (size() - 1)) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        List<Type> segment = new ArrayList<>(Math.max(0, endIndex - beginIndex + 1));
+        read(head + beginIndex, endIndex - beginIndex + 1, segment);
+        return segment;
+    }
+
+    /**
+     * Копирует в список не более count заметок, начиная с заметки с номером fromSequence.
+     * Скопированные заметки всегда идут подряд и соответствуют своим номерам.
+     * Если часть заметок была вытеснена до или во время чтения, копирование продолжается
+     * с самой старой сохранившейся заметки, а уже скопированные более старые отбрасываются.
+     *
+     * @param fromSequence порядковый номер первой заметки
+     * @param count        наибольшее число заметок для копирования
+     * @param into         список, в конец которого добавляются заметки
+     * @return порядковый номер первой скопированной заметки; если он больше fromSequence,
+     * то заметки между ними были потеряны
+     */
+    public long read(long fromSequence, int count, List<? super Type> into) {
+        int base = into.size();
+        long first = Math.max(fromSequence, head);
+        long end = Math.min(fromSequence + count, tail);
+        long sequence = first;
+
+        while (sequence < end) {
+            Object value = load(sequence);
+
+            if (value != STALE) {
+                into.add(cast(value));
+                sequence++;
+                continue;
+            }
+
+            long oldest = head;
+            if (oldest <= sequence) {
+                // заметка удалена методом pop - дальше читать нечего
+                break;
+            }
+
+            truncate(into, base);
+            first = oldest;
+            sequence = oldest;
+            end = Math.min(fromSequence + count, tail);
+        }
+
+        return first;
+    }
+
+    /**
+     * Возвращает итератор по согласованному снимку коллекции на момент вызова.
+     * Последующие изменения коллекции на снимок не влияют.
+     *
+     * @return итератор для итерации по элементам коллекции
+     */
+    @Override
+    public Iterator<Type> iterator() {
+        List<Type> snapshot = new ArrayList<>(size());
+        read(head, size, snapshot);
+        return snapshot.iterator();
+    }
+
+    /**
+     * Выполняет заданное действие для каждого элемента коллекции.
+     *
+     * @param action действие, которое нужно выполнить для каждого элемента
+     * @throws NullPointerException если переданное действие равно null
+     */
+    @Override
+    public void forEach(Consumer<? super Type> action) {
+        if (action == null) {
+            throw new NullPointerException();
+        }
+
+        for (Type current : this) {
+            action.accept(current);
+        }
+    }
+
+    /**
+     * Возвращает строковое представление коллекции.
+     *
+     * @return строковое представление коллекции
+     */
+    @Override
+    public final String toString() {
+        StringBuilder view = new StringBuilder();
+
+        view.append("[");
+
+        Iterator<Type> iterator = iterator();
+        while (iterator.hasNext()) {
+            view.append(iterator.next());
+
+            if (iterator.hasNext()) {
+                view.append(", ");
+            }
+        }
+
+        view.append("]");
+
+        return view.toString();
+    }
+
+    /**
+     * Записывает заметку в ячейку. На время записи штамп ячейки равен {@link #EMPTY},
+     * после записи - новому значению счётчика записей. Вызывается под монитором писателей.
+     *
+     * @param slot     индекс ячейки буфера
+     * @param sequence порядковый номер заметки или {@link #EMPTY}, если ячейка освобождается
+     * @param element  заметка
+     */
+    private void write(int slot, long sequence, Type element) {
+        stamps.set(slot, EMPTY);
+        sequences.set(slot, sequence);
+        elements.set(slot, element);
+        stamps.set(slot, ++writes);
+    }
+
+    /**
+     * Читает заметку с указанным порядковым номером.
+     *
+     * @param sequence порядковый номер заметки
+     * @return заметка или {@link #STALE}, если ячейка хранит другую заметку или была
+     * переписана во время чтения
+     */
+    private Object load(long sequence) {
+        int slot = slot(sequence);
+        long stamp = stamps.get(slot);
+        if (stamp == EMPTY || sequences.get(slot) != sequence) {
+            return STALE;
+        }
+        Type value = elements.get(slot);
+        return stamps.get(slot) == stamp ? value : STALE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Type> Type cast(Object value) {
+        return (Type) value;
+    }
+
+    /**
+     * Вычисляет позицию заметки с указанным порядковым номером в кольцевом буфере.
+     *
+     * @param sequence порядковый номер заметки
+     * @return индекс ячейки буфера
+     */
+    private int slot(long sequence) {
+        return (int) (sequence % size);
+    }
+
+    /**
+     * Удаляет из списка все элементы, начиная с указанной позиции.
+     *
+     * @param list список
+     * @param size позиция, до которой список сохраняется
+     */
+    private static void truncate(List<?> list, int size) {
+        while (list.size() > size) {
+            list.remove(list.size() - 1);
+        }
+    }
+}
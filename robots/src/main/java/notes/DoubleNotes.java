@@ -0,0 +1,284 @@
+package notes;
+
+/**
+ * Класс DoubleNotes - ограниченная история значений типа double.
+ * Аналог {@link Notes} для числовой телеметрии (координаты, направление робота),
+ * который хранит значения в массиве примитивов и поэтому не упаковывает их в объекты.
+ * <p>
+ * Помимо самой истории поддерживаются агрегаты по скользящему окну из последних
+ * {@link #window()} значений: минимум, максимум и среднее. Агрегаты пересчитываются
+ * при каждом добавлении за амортизированное O(1): минимум и максимум - с помощью
+ * монотонных очередей номеров значений, среднее - с помощью накопленной суммы.
+ */
+public class DoubleNotes {
+    private final double[] values;
+    private int size = 10;
+    private final int window;
+
+    private long head;
+    private long tail;
+
+    private final long[] minQueue;
+    private final long[] maxQueue;
+    private int minFront, minCount;
+    private int maxFront, maxCount;
+
+    private double windowSum;
+    private int addsSinceRecount;
+
+    private final Object synchronizedObject = new Object();
+
+    /**
+     * Создает новую историю заданного размера; окно агрегатов совпадает с размером.
+     *
+     * @param size размер истории (не меньше 10)
+     */
+    public DoubleNotes(int size) {
+        this(size, size);
+    }
+
+    /**
+     * Создает новую историю заданного размера с окном агрегатов заданной длины.
+     * Если указанный размер превышает 10, устанавливается указанный размер,
+     * в противном случае используется размер по умолчанию (10).
+     *
+     * @param size   размер истории
+     * @param window число последних значений, по которым считаются агрегаты
+     * @throws IllegalArgumentException если окно не положительно или больше размера истории
+     */
+    public DoubleNotes(int size, int window) {
+        if (size > 10)
+            this.size = size;
+
+        if (window <= 0 || window > this.size) {
+            throw new IllegalArgumentException("window must be in [1, " + this.size + "]");
+        }
+
+        this.window = window;
+        values = new double[this.size];
+        minQueue = new long[window];
+        maxQueue = new long[window];
+    }
+
+    /**
+     * Возвращает ёмкость истории.
+     *
+     * @return наибольшее число хранимых значений
+     */
+    public int capacity() {
+        return size;
+    }
+
+    /**
+     * Возвращает длину окна агрегатов.
+     *
+     * @return число последних значений, по которым считаются агрегаты
+     */
+    public int window() {
+        return window;
+    }
+
+    /**
+     * Возвращает количество значений в истории.
+     *
+     * @return количество значений
+     */
+    public int size() {
+        synchronized (synchronizedObject) {
+            return (int) (tail - head);
+        }
+    }
+
+    /**
+     * Проверяет, является ли история пустой.
+     *
+     * @return true, если история пуста
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Добавляет значение в историю. Если история заполнена, самое старое значение вытесняется.
+     *
+     * @param value значение
+     */
+    public void add(double value) {
+        synchronized (synchronizedObject) {
+            long sequence = tail;
+
+            if (sequence - window >= 0) {
+                windowSum -= values[slot(sequence - window)];
+            }
+            if (sequence - head == size) {
+                head++;
+            }
+
+            values[slot(sequence)] = value;
+            tail = sequence + 1;
+            windowSum += value;
+
+            if (++addsSinceRecount == window) {
+                recountSum();
+            }
+
+            long expired = sequence - window;
+
+            if (minCount > 0 && minQueue[minFront] <= expired) {
+                minFront = queueSlot(minFront + 1);
+                minCount--;
+            }
+            while (minCount > 0 && values[slot(minQueue[queueSlot(minFront + minCount - 1)])] >= value) {
+                minCount--;
+            }
+            minQueue[queueSlot(minFront + minCount)] = sequence;
+            minCount++;
+
+            if (maxCount > 0 && maxQueue[maxFront] <= expired) {
+                maxFront = queueSlot(maxFront + 1);
+                maxCount--;
+            }
+            while (maxCount > 0 && values[slot(maxQueue[queueSlot(maxFront + maxCount - 1)])] <= value) {
+                maxCount--;
+            }
+            maxQueue[queueSlot(maxFront + maxCount)] = sequence;
+            maxCount++;
+        }
+    }
+
+    /**
+     * Возвращает значение по индексу, отсчитываемому от самого старого значения.
+     *
+     * @param index индекс значения
+     * @return значение
+     * @throws IndexOutOfBoundsException если индекс выходит за границы истории
+     */
+    public double get(int index) {
+        synchronized (synchronizedObject) {
+            if (index < 0 || index >= tail - head) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            return values[slot(head + index)];
+        }
+    }
+
+    /**
+     * Возвращает последнее добавленное значение.
+     *
+     * @return последнее значение или NaN, если история пуста
+     */
+    public double peek() {
+        synchronized (synchronizedObject) {
+            if (head == tail) {
+                return Double.NaN;
+            }
+            return values[slot(tail - 1)];
+        }
+    }
+
+    /**
+     * Копирует всю историю от старых значений к новым в переданный массив.
+     *
+     * @param destination массив, в который копируются значения
+     * @param offset      позиция в массиве, с которой начинается запись
+     * @return количество скопированных значений
+     * @throws IndexOutOfBoundsException если значения не помещаются в массив
+     */
+    public int copyTo(double[] destination, int offset) {
+        return copyLast(size, destination, offset);
+    }
+
+    /**
+     * Копирует не более count последних значений от старых к новым в переданный массив.
+     *
+     * @param count       наибольшее количество значений
+     * @param destination массив, в который копируются значения
+     * @param offset      позиция в массиве, с которой начинается запись
+     * @return количество скопированных значений
+     * @throws IndexOutOfBoundsException если значения не помещаются в массив
+     */
+    public int copyLast(int count, double[] destination, int offset) {
+        synchronized (synchronizedObject) {
+            int copied = (int) Math.min(Math.max(count, 0), tail - head);
+            if (offset < 0 || offset + copied > destination.length) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            int from = slot(tail - copied);
+            int firstPart = Math.min(copied, size - from);
+            System.arraycopy(values, from, destination, offset, firstPart);
+            System.arraycopy(values, 0, destination, offset + firstPart, copied - firstPart);
+
+            return copied;
+        }
+    }
+
+    /**
+     * Возвращает минимум последних {@link #window()} значений.
+     *
+     * @return минимум или NaN, если история пуста
+     */
+    public double min() {
+        synchronized (synchronizedObject) {
+            return minCount == 0 ? Double.NaN : values[slot(minQueue[minFront])];
+        }
+    }
+
+    /**
+     * Возвращает максимум последних {@link #window()} значений.
+     *
+     * @return максимум или NaN, если история пуста
+     */
+    public double max() {
+        synchronized (synchronizedObject) {
+            return maxCount == 0 ? Double.NaN : values[slot(maxQueue[maxFront])];
+        }
+    }
+
+    /**
+     * Возвращает среднее последних {@link #window()} значений.
+     *
+     * @return среднее или NaN, если история пуста
+     */
+    public double mean() {
+        synchronized (synchronizedObject) {
+            long count = Math.min(tail, window);
+            return count == 0 ? Double.NaN : windowSum / count;
+        }
+    }
+
+    /**
+     * Удаляет все значения из истории.
+     */
+    public void clear() {
+        synchronized (synchronizedObject) {
+            minCount = 0;
+            maxCount = 0;
+            windowSum = 0;
+            addsSinceRecount = 0;
+            tail = 0;
+            head = 0;
+        }
+    }
+
+    /**
+     * Пересчитывает сумму окна заново, чтобы не накапливать погрешность вычитаний.
+     */
+    private void recountSum() {
+        double sum = 0;
+        for (long i = Math.max(0, tail - window); i < tail; i++) {
+            sum += values[slot(i)];
+        }
+        windowSum = sum;
+        addsSinceRecount = 0;
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % size);
+    }
+
+    private int queueSlot(int index) {
+        return index % window;
+    }
+}
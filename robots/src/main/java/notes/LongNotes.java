@@ -0,0 +1,278 @@
+package notes;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Класс LongNotes - ограниченная история значений типа long.
+ * Аналог {@link Notes} для целочисленной телеметрии (длительности тактов в наносекундах, счётчики),
+ * который хранит значения в массиве примитивов и поэтому не упаковывает их в объекты.
+ * <p>
+ * Помимо самой истории поддерживаются агрегаты по скользящему окну из последних
+ * {@link #window()} значений: минимум, максимум и среднее. Агрегаты пересчитываются
+ * при каждом добавлении за амортизированное O(1): минимум и максимум - с помощью
+ * монотонных очередей номеров значений, среднее - с помощью накопленной суммы,
+ * которая для целых чисел не накапливает погрешности.
+ */
+public class LongNotes {
+    private final long[] values;
+    private int size = 10;
+    private final int window;
+
+    private long head;
+    private long tail;
+
+    private final long[] minQueue;
+    private final long[] maxQueue;
+    private int minFront, minCount;
+    private int maxFront, maxCount;
+
+    private long windowSum;
+
+    private final Object synchronizedObject = new Object();
+
+    /**
+     * Создает новую историю заданного размера; окно агрегатов совпадает с размером.
+     *
+     * @param size размер истории (не меньше 10)
+     */
+    public LongNotes(int size) {
+        this(size, size);
+    }
+
+    /**
+     * Создает новую историю заданного размера с окном агрегатов заданной длины.
+     * Если указанный размер превышает 10, устанавливается указанный размер,
+     * в противном случае используется размер по умолчанию (10).
+     *
+     * @param size   размер истории
+     * @param window число последних значений, по которым считаются агрегаты
+     * @throws IllegalArgumentException если окно не положительно или больше размера истории
+     */
+    public LongNotes(int size, int window) {
+        if (size > 10)
+            this.size = size;
+
+        if (window <= 0 || window > this.size) {
+            throw new IllegalArgumentException("window must be in [1, " + this.size + "]");
+        }
+
+        this.window = window;
+        values = new long[this.size];
+        minQueue = new long[window];
+        maxQueue = new long[window];
+    }
+
+    /**
+     * Возвращает ёмкость истории.
+     *
+     * @return наибольшее число хранимых значений
+     */
+    public int capacity() {
+        return size;
+    }
+
+    /**
+     * Возвращает длину окна агрегатов.
+     *
+     * @return число последних значений, по которым считаются агрегаты
+     */
+    public int window() {
+        return window;
+    }
+
+    /**
+     * Возвращает количество значений в истории.
+     *
+     * @return количество значений
+     */
+    public int size() {
+        synchronized (synchronizedObject) {
+            return (int) (tail - head);
+        }
+    }
+
+    /**
+     * Проверяет, является ли история пустой.
+     *
+     * @return true, если история пуста
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Добавляет значение в историю. Если история заполнена, самое старое значение вытесняется.
+     *
+     * @param value значение
+     */
+    public void add(long value) {
+        synchronized (synchronizedObject) {
+            long sequence = tail;
+
+            if (sequence - window >= 0) {
+                windowSum -= values[slot(sequence - window)];
+            }
+            if (sequence - head == size) {
+                head++;
+            }
+
+            values[slot(sequence)] = value;
+            tail = sequence + 1;
+            windowSum += value;
+
+            long expired = sequence - window;
+
+            if (minCount > 0 && minQueue[minFront] <= expired) {
+                minFront = queueSlot(minFront + 1);
+                minCount--;
+            }
+            while (minCount > 0 && values[slot(minQueue[queueSlot(minFront + minCount - 1)])] >= value) {
+                minCount--;
+            }
+            minQueue[queueSlot(minFront + minCount)] = sequence;
+            minCount++;
+
+            if (maxCount > 0 && maxQueue[maxFront] <= expired) {
+                maxFront = queueSlot(maxFront + 1);
+                maxCount--;
+            }
+            while (maxCount > 0 && values[slot(maxQueue[queueSlot(maxFront + maxCount - 1)])] <= value) {
+                maxCount--;
+            }
+            maxQueue[queueSlot(maxFront + maxCount)] = sequence;
+            maxCount++;
+        }
+    }
+
+    /**
+     * Возвращает значение по индексу, отсчитываемому от самого старого значения.
+     *
+     * @param index индекс значения
+     * @return значение
+     * @throws IndexOutOfBoundsException если индекс выходит за границы истории
+     */
+    public long get(int index) {
+        synchronized (synchronizedObject) {
+            if (index < 0 || index >= tail - head) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            return values[slot(head + index)];
+        }
+    }
+
+    /**
+     * Возвращает последнее добавленное значение.
+     *
+     * @return последнее значение
+     * @throws NoSuchElementException если история пуста
+     */
+    public long peek() {
+        synchronized (synchronizedObject) {
+            if (head == tail) {
+                throw new NoSuchElementException();
+            }
+            return values[slot(tail - 1)];
+        }
+    }
+
+    /**
+     * Копирует всю историю от старых значений к новым в переданный массив.
+     *
+     * @param destination массив, в который копируются значения
+     * @param offset      позиция в массиве, с которой начинается запись
+     * @return количество скопированных значений
+     * @throws IndexOutOfBoundsException если значения не помещаются в массив
+     */
+    public int copyTo(long[] destination, int offset) {
+        return copyLast(size, destination, offset);
+    }
+
+    /**
+     * Копирует не более count последних значений от старых к новым в переданный массив.
+     *
+     * @param count       наибольшее количество значений
+     * @param destination массив, в который копируются значения
+     * @param offset      позиция в массиве, с которой начинается запись
+     * @return количество скопированных значений
+     * @throws IndexOutOfBoundsException если значения не помещаются в массив
+     */
+    public int copyLast(int count, long[] destination, int offset) {
+        synchronized (synchronizedObject) {
+            int copied = (int) Math.min(Math.max(count, 0), tail - head);
+            if (offset < 0 || offset + copied > destination.length) {
+                throw new IndexOutOfBoundsException();
+            }
+
+            int from = slot(tail - copied);
+            int firstPart = Math.min(copied, size - from);
+            System.arraycopy(values, from, destination, offset, firstPart);
+            System.arraycopy(values, 0, destination, offset + firstPart, copied - firstPart);
+
+            return copied;
+        }
+    }
+
+    /**
+     * Возвращает минимум последних {@link #window()} значений.
+     *
+     * @return минимум
+     * @throws NoSuchElementException если история пуста
+     */
+    public long min() {
+        synchronized (synchronizedObject) {
+            if (minCount == 0) {
+                throw new NoSuchElementException();
+            }
+            return values[slot(minQueue[minFront])];
+        }
+    }
+
+    /**
+     * Возвращает максимум последних {@link #window()} значений.
+     *
+     * @return максимум
+     * @throws NoSuchElementException если история пуста
+     */
+    public long max() {
+        synchronized (synchronizedObject) {
+            if (maxCount == 0) {
+                throw new NoSuchElementException();
+            }
+            return values[slot(maxQueue[maxFront])];
+        }
+    }
+
+    /**
+     * Возвращает среднее последних {@link #window()} значений.
+     *
+     * @return среднее или NaN, если история пуста
+     */
+    public double mean() {
+        synchronized (synchronizedObject) {
+            long count = Math.min(tail, window);
+            return count == 0 ? Double.NaN : (double) windowSum / count;
+        }
+    }
+
+    /**
+     * Удаляет все значения из истории.
+     */
+    public void clear() {
+        synchronized (synchronizedObject) {
+            minCount = 0;
+            maxCount = 0;
+            windowSum = 0;
+            tail = 0;
+            head = 0;
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % size);
+    }
+
+    private int queueSlot(int index) {
+        return index % window;
+    }
+}
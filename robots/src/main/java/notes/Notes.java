@@ -2,11 +2,9 @@ package notes;
 
 import java.util.Iterator;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.concurrent.Semaphore;
+import java.util.Objects;
 import java.util.function.Consumer;
 
 /**
@@ -16,73 +14,48 @@ import java.util.function.Consumer;
  * Заметки хранятся в порядке добавления и доступны для итерации.
  * Поддерживает операции добавления, получения, удаления и проверки наличия элементов.
  * Реализует интерфейс Iterable для поддержки циклов for-each и метода forEach.
+ * <p>
+ * Заметки хранятся в заранее выделенном кольцевом буфере фиксированной ёмкости,
+ * поэтому добавление не создаёт объектов, а чтение по индексу выполняется за O(1).
+ * Каждой заметке присваивается порядковый номер, который растёт с каждым добавлением;
+ * позиция заметки в буфере вычисляется как остаток от деления номера на ёмкость.
  *
  * @param <Type> тип элементов в коллекции Notes
  */
 public class Notes<Type> implements Iterable<Type> {
-    /**
-     * Внутренний класс LinkedElement представляет элемент связного списка.
-     *
-     * @param <Type> тип значения, хранящегося в элементе
-     */
-    private static class LinkedElement<Type> {
-        volatile Type value;
-        volatile boolean exist;
-
-        volatile int number;
-
-        volatile LinkedElement<Type> prev;
-        volatile LinkedElement<Type> next;
-    }
-
     /**
      * Класс NotesIterator представляет собой итератор для коллекции Notes.
      * Позволяет последовательно перебирать элементы коллекции.
+     * Итератор запоминает порядковый номер следующей заметки; если она уже
+     * вытеснена из буфера, перебор продолжается с самой старой сохранившейся.
      *
      * @param <Type> тип элементов в коллекции Notes
      */
     private static class NotesIterator<Type> implements Iterator<Type> {
-        private LinkedElement<Type> next;
-        private LinkedElement<Type> curr;
-
-        private final Object synchronizedObject = new Object();
-
-        /**
-         * Создает новый объект класса NotesIterator с указанным элементом.
-         *
-         * @param element элемент, с которого начинается итерация
-         */
-        public NotesIterator(LinkedElement<Type> element) {
-            this.next = element;
-            this.curr = null;
-        }
+        private final Notes<Type> notes;
+        private long next;
 
         /**
-         * Поиск следующего существующего элемента в итерации.
+         * Создает новый объект класса NotesIterator, начинающий перебор с указанной заметки.
          *
-         * @return следующий существующий элемент в итерации
+         * @param notes коллекция, по которой выполняется перебор
+         * @param first порядковый номер заметки, с которой начинается итерация
          */
-        private LinkedElement<Type> findNext() {
-            synchronized (synchronizedObject) {
-
-                LinkedElement<Type> item = this.next;
-
-                while (item.exist && item.next != null) {
-                    item = item.next;
-                }
-
-                return item;
-            }
+        public NotesIterator(Notes<Type> notes, long first) {
+            this.notes = notes;
+            this.next = first;
         }
 
         /**
-         * Возвращает следующий элемент в итерации.
+         * Проверяет, остались ли элементы в итерации.
          *
-         * @return следующий элемент в итерации
+         * @return true, если есть следующий элемент
          */
         @Override
         public boolean hasNext() {
-            return findNext().exist;
+            synchronized (notes.synchronizedObject) {
+                return Math.max(next, notes.head) < notes.tail;
+            }
         }
 
         /**
@@ -93,16 +66,16 @@ public class Notes<Type> implements Iterable<Type> {
          */
         @Override
         public Type next() {
-            LinkedElement<Type> next = findNext();
+            synchronized (notes.synchronizedObject) {
+                long current = Math.max(next, notes.head);
 
-            if (!findNext().exist) {
-                throw new NoSuchElementException();
-            }
-
-            this.curr = next;
-            this.next = next.next;
+                if (current >= notes.tail) {
+                    throw new NoSuchElementException();
+                }
 
-            return this.curr.value;
+                next = current + 1;
+                return notes.elementAt(current);
+            }
         }
 
         /**
@@ -116,18 +89,22 @@ public class Notes<Type> implements Iterable<Type> {
         }
     }
 
-    private final Map<Type, LinkedElement<Type>> items;
-    private final Map<Integer, Type> byIndex;
-    private LinkedElement<Type> head;
-    private LinkedElement<Type> placeholder;
+    private final Object[] elements;
     private int size = 10;
-    private int count;
-    private int start;
+    /**
+     * Порядковый номер самой старой заметки в коллекции.
+     */
+    private long head;
+    /**
+     * Порядковый номер, который получит следующая добавленная заметка.
+     */
+    private long tail;
     private final Object synchronizedObject = new Object();
     /**
      * Создает новый объект класса Notes с заданным размером.
      * Если указанный размер превышает 10, устанавливается указанный размер,
      * в противном случае используется размер по умолчанию (10).
+     * Память под все заметки выделяется сразу.
      *
      * @param size размер коллекции Notes
      */
@@ -135,13 +112,18 @@ public class Notes<Type> implements Iterable<Type> {
         if (size > 10)
             this.size = size;
 
-        items = new HashMap<>();
-        byIndex = new HashMap<>();
-        placeholder = new LinkedElement<>();
-        placeholder.number = 0;
-        placeholder.exist = false;
-        head = placeholder;
-        start = 0;
+        elements = new Object[this.size];
+        head = 0;
+        tail = 0;
+    }
+
+    /**
+     * Возвращает ёмкость коллекции, то есть наибольшее число хранимых заметок.
+     *
+     * @return ёмкость коллекции
+     */
+    public int capacity() {
+        return size;
     }
 
     /**
@@ -150,7 +132,7 @@ public class Notes<Type> implements Iterable<Type> {
      * @return true, если коллекция пуста, в противном случае - false
      */
     public boolean isEmpty() {
-        return head == placeholder;
+        return size() == 0;
     }
 
     /**
@@ -159,7 +141,9 @@ public class Notes<Type> implements Iterable<Type> {
      * @return количество элементов в коллекции
      */
     public int size() {
-        return count;
+        synchronized (synchronizedObject) {
+            return (int) (tail - head);
+        }
     }
 
     /**
@@ -174,11 +158,10 @@ public class Notes<Type> implements Iterable<Type> {
         }
 
         synchronized (synchronizedObject) {
-            try {
-                Type other = (Type) o;
-                return items.containsKey(other);
-            } catch (ClassCastException e) {
-                // just ignore
+            for (long i = head; i < tail; i++) {
+                if (Objects.equals(o, elementAt(i))) {
+                    return true;
+                }
             }
 
             return false;
@@ -195,42 +178,14 @@ public class Notes<Type> implements Iterable<Type> {
      */
     public boolean add(Type element) {
         synchronized (synchronizedObject) {
-            try {
-                if (size == count) {
-                    items.remove(head.value);
-                    byIndex.remove(head.number);
-                    head.exist = false;
-                    head.next.prev = null;
-                    head = head.next;
-                    start = head.number;
-                    count--;
-                }
-
-                LinkedElement<Type> current = placeholder;
-                current.value = element;
-                current.exist = true;
-
-                byIndex.put(current.number, element);
-                items.put(element, current);
-
-                current.next = new LinkedElement<>();
-
-                placeholder = current.next;
-                placeholder.prev = current;
-                placeholder.exist = false;
-                placeholder.number = current.number + 1;
+            if (tail - head == size) {
+                head++;
+            }
 
-                count++;
+            elements[slot(tail)] = element;
+            tail++;
 
-                return true;
-            } catch (
-                    UnsupportedOperationException |
-                    ClassCastException |
-                    NullPointerException |
-                    IllegalArgumentException e
-            ) {
-                return false;
-            }
+            return true;
         }
     }
 
@@ -244,19 +199,19 @@ public class Notes<Type> implements Iterable<Type> {
      * @throws IndexOutOfBoundsException если начальный или конечный индекс выходит за границы коллекции
      */
     public List<Type> getSegment(int beginIndex, int endIndex) {
-        if (beginIndex < 0 || endIndex > (size() - 1)) {
-            throw new IndexOutOfBoundsException();
-        }
+        synchronized (synchronizedObject) {
+            if (beginIndex < 0 || endIndex > (size() - 1)) {
+                throw new IndexOutOfBoundsException();
+            }
 
-        List<Type> segment = new ArrayList<>();
+            List<Type> segment = new ArrayList<>(Math.max(0, endIndex - beginIndex + 1));
 
-        synchronized (synchronizedObject) {
-            for (int i = start + beginIndex; i <= start + endIndex; i++) {
-                segment.add(get(i));
+            for (long i = head + beginIndex; i <= head + endIndex; i++) {
+                segment.add(elementAt(i));
             }
-        }
 
-        return segment;
+            return segment;
+        }
     }
 
     /**
@@ -266,10 +221,10 @@ public class Notes<Type> implements Iterable<Type> {
      */
     public Type peek() {
         synchronized (synchronizedObject) {
-            if (head == placeholder) {
+            if (head == tail) {
                 return null;
             }
-            return placeholder.prev.value;
+            return elementAt(tail - 1);
         }
     }
 
@@ -280,30 +235,15 @@ public class Notes<Type> implements Iterable<Type> {
      */
     public Type pop() {
         synchronized (synchronizedObject) {
-            if (head == placeholder) {
+            if (head == tail) {
                 return null;
             }
 
-            LinkedElement<Type> lastElement = placeholder.prev;
-            Type returnValue = lastElement.value;
-            items.remove(lastElement.value);
-            byIndex.remove(lastElement.number);
-            lastElement.exist = false;
-
-            if (count > 1) {
-                lastElement.prev.next = placeholder;
-                placeholder.prev = lastElement.prev;
-                lastElement.prev = null;
-
-                count--;
-
-                return returnValue;
-            }
+            tail--;
+            int slot = slot(tail);
+            Type returnValue = elementAt(tail);
+            elements[slot] = null;
 
-            count--;
-
-            head = placeholder;
-            head.prev = null;
             return returnValue;
         }
     }
@@ -317,13 +257,11 @@ public class Notes<Type> implements Iterable<Type> {
      */
     public Type get(int index) {
         synchronized (synchronizedObject) {
-            Type value = byIndex.get(start + index);
-
-            if (value == null) {
+            if (index < 0 || index >= tail - head) {
                 throw new IndexOutOfBoundsException();
             }
 
-            return value;
+            return elementAt(head + index);
         }
     }
     /**
@@ -333,7 +271,9 @@ public class Notes<Type> implements Iterable<Type> {
      */
     @Override
     public Iterator<Type> iterator() {
-        return new NotesIterator<>(head);
+        synchronized (synchronizedObject) {
+            return new NotesIterator<>(this, head);
+        }
     }
 
 
@@ -366,11 +306,13 @@ public class Notes<Type> implements Iterable<Type> {
 
         view.append("[");
 
-        for (Type current : this) {
-            view.append(current.toString());
+        synchronized (synchronizedObject) {
+            for (long i = head; i < tail; i++) {
+                view.append(elementAt(i));
 
-            if (size() > 1 && (items.get(current).number < (start + size() - 1))) {
-                view.append(", ");
+                if (i < tail - 1) {
+                    view.append(", ");
+                }
             }
         }
 
@@ -378,4 +320,26 @@ public class Notes<Type> implements Iterable<Type> {
 
         return view.toString();
     }
-}
\ No newline at end of file
+
+    /**
+     * Вычисляет позицию заметки с указанным порядковым номером в кольцевом буфере.
+     *
+     * @param sequence порядковый номер заметки
+     * @return индекс ячейки буфера
+     */
+    private int slot(long sequence) {
+        return (int) (sequence % size);
+    }
+
+    /**
+     * Возвращает заметку с указанным порядковым номером.
+     * Вызывающий код отвечает за синхронизацию и проверку границ.
+     *
+     * @param sequence порядковый номер заметки
+     * @return заметка
+     */
+    @SuppressWarnings("unchecked")
+    private Type elementAt(long sequence) {
+        return (Type) elements[slot(sequence)];
+    }
+}
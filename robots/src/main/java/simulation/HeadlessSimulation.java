@@ -0,0 +1,239 @@
+package simulation;
+
+import model.AdaptiveStepIntegrator;
+import model.ArcKernel;
+import model.CollisionDetector;
+import model.ExactArcIntegrator;
+import model.ModelRobot;
+import model.MotionIntegrator;
+import model.ParallelFleetStepper;
+import model.RobotFleet;
+import model.RungeKuttaIntegrator;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Класс HeadlessSimulation прогоняет модель роботов без Swing, отрисовки и наблюдателей.
+ * Такты выполняются подряд с максимальной скоростью, после чего возвращается
+ * {@link SimulationReport} с пропускной способностью.
+ * <p>
+ * Может использоваться как API или из командной строки:
+ * <pre>
+ * java -cp ... simulation.HeadlessSimulation --robots 100000 --ticks 1000 --threads 8
+ * </pre>
+ * Параметр {@code --integrator exact|rk4|adaptive} (с {@code --tolerance} для адаптивного шага)
+ * выбирает интегратор движения, что позволяет сравнить точность и пропускную способность
+ * при увеличенной длительности такта, а {@code --collisions true} включает обработку столкновений.
+ * Параметр {@code --kernel scalar|vector} продвигает роботов с исходной кинематикой ядром
+ * {@link ArcKernel}; векторное ядро требует запуска с {@code --add-modules jdk.incubator.vector}.
+ */
+public class HeadlessSimulation {
+    private final RobotFleet fleet;
+    private final double duration;
+    private final ParallelFleetStepper stepper;
+
+    /**
+     * Создает прогон флота с последовательным шагом.
+     *
+     * @param fleet    флот роботов
+     * @param duration длительность такта
+     */
+    public HeadlessSimulation(RobotFleet fleet, double duration) {
+        this(fleet, duration, null);
+    }
+
+    /**
+     * Создает прогон флота.
+     *
+     * @param fleet    флот роботов
+     * @param duration длительность такта
+     * @param stepper  параллельный шаг или null для последовательного шага
+     */
+    public HeadlessSimulation(RobotFleet fleet, double duration, ParallelFleetStepper stepper) {
+        this.fleet = fleet;
+        this.duration = duration;
+        this.stepper = stepper;
+    }
+
+    /**
+     * Создает прогон флота, в котором хранится переданный робот. Наблюдатели робота
+     * во время прогона не оповещаются.
+     *
+     * @param robot    робот
+     * @param duration длительность такта
+     * @return прогон флота робота
+     */
+    public static HeadlessSimulation of(ModelRobot robot, double duration) {
+        return new HeadlessSimulation(robot.getFleet(), duration);
+    }
+
+    /**
+     * Создает флот со случайными позициями, направлениями и целями роботов.
+     * Одинаковое зерно всегда даёт одинаковый флот.
+     *
+     * @param count  число роботов
+     * @param seed   зерно генератора случайных чисел
+     * @param width  ширина поля
+     * @param height высота поля
+     * @return заполненный флот
+     */
+    public static RobotFleet createRandomFleet(int count, long seed, int width, int height) {
+        Random random = new Random(seed);
+        RobotFleet fleet = new RobotFleet(count);
+
+        for (int i = 0; i < count; i++) {
+            fleet.addRobot(random.nextDouble() * width, random.nextDouble() * height,
+                    random.nextDouble() * 2 * Math.PI, random.nextInt(width), random.nextInt(height));
+        }
+
+        return fleet;
+    }
+
+    /**
+     * Возвращает флот, который продвигает прогон.
+     *
+     * @return флот роботов
+     */
+    public RobotFleet getFleet() {
+        return fleet;
+    }
+
+    /**
+     * Выполняет заданное число тактов подряд.
+     *
+     * @param ticks число тактов
+     * @return отчёт о прогоне
+     */
+    public SimulationReport run(long ticks) {
+        long start = System.nanoTime();
+
+        for (long i = 0; i < ticks; i++) {
+            if (stepper == null) {
+                fleet.step(duration);
+            } else {
+                stepper.step(fleet, duration);
+            }
+        }
+
+        return new SimulationReport(fleet.size(), ticks, System.nanoTime() - start);
+    }
+
+    /**
+     * Создает интегратор движения по имени.
+     *
+     * @param name      имя интегратора: exact, rk4 или adaptive
+     * @param tolerance допустимая погрешность позиции для адаптивного шага
+     * @return интегратор движения
+     * @throws IllegalArgumentException если имя неизвестно
+     */
+    public static MotionIntegrator createIntegrator(String name, double tolerance) {
+        return switch (name) {
+            case "exact" -> new ExactArcIntegrator();
+            case "rk4" -> new RungeKuttaIntegrator();
+            case "adaptive" -> new AdaptiveStepIntegrator(tolerance);
+            default -> throw new IllegalArgumentException("Unknown integrator: " + name);
+        };
+    }
+
+    /**
+     * Создает ядро продвижения по имени.
+     *
+     * @param name имя ядра: none, scalar или vector
+     * @return ядро или null для продвижения интегратором по одному роботу
+     * @throws IllegalArgumentException если имя неизвестно
+     */
+    public static ArcKernel createKernel(String name) {
+        return switch (name) {
+            case "none" -> null;
+            case "scalar" -> ArcKernel.scalar();
+            case "vector" -> ArcKernel.vector();
+            default -> throw new IllegalArgumentException("Unknown kernel: " + name);
+        };
+    }
+
+    /**
+     * Запускает прогон из командной строки и печатает отчёт и конечные состояния первых роботов.
+     *
+     * @param args параметры прогона в виде пар "--имя значение"
+     */
+    public static void main(String[] args) {
+        int robots = 10000;
+        long ticks = 1000;
+        long warmup = 100;
+        double duration = 10;
+        int threads = 1;
+        long seed = 42;
+        int width = 1000;
+        int height = 1000;
+        int print = 10;
+        String integrator = "exact";
+        double tolerance = 0.01;
+        boolean collisions = false;
+        String kernel = "none";
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            if (value == null) {
+                System.err.println("Missing value for option: " + args[i]);
+                System.exit(2);
+            }
+            switch (args[i]) {
+                case "--robots" -> robots = Integer.parseInt(value);
+                case "--ticks" -> ticks = Long.parseLong(value);
+                case "--warmup" -> warmup = Long.parseLong(value);
+                case "--duration" -> duration = Double.parseDouble(value);
+                case "--threads" -> threads = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--width" -> width = Integer.parseInt(value);
+                case "--height" -> height = Integer.parseInt(value);
+                case "--print" -> print = Integer.parseInt(value);
+                case "--integrator" -> integrator = value;
+                case "--tolerance" -> tolerance = Double.parseDouble(value);
+                case "--collisions" -> collisions = Boolean.parseBoolean(value);
+                case "--kernel" -> kernel = value;
+                default -> {
+                    System.err.println("Unknown option: " + args[i]);
+                    System.err.println("Options: --robots N --ticks N --warmup N --duration MS --threads N "
+                            + "--seed N --width N --height N --print N --integrator exact|rk4|adaptive --tolerance D "
+                            + "--collisions true|false --kernel none|scalar|vector");
+                    System.exit(2);
+                }
+            }
+            i++;
+        }
+
+        RobotFleet fleet = createRandomFleet(robots, seed, width, height);
+        fleet.setIntegrator(createIntegrator(integrator, tolerance));
+        fleet.setKernel(createKernel(kernel));
+        if (collisions) {
+            fleet.setCollisionDetector(new CollisionDetector());
+        }
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        HeadlessSimulation simulation = new HeadlessSimulation(fleet, duration,
+                pool == null ? null : new ParallelFleetStepper(pool, ParallelFleetStepper.DEFAULT_CHUNK_SIZE));
+
+        simulation.run(warmup);
+        SimulationReport report = simulation.run(ticks);
+
+        System.out.println("integrator: " + fleet.getIntegrator());
+        if (fleet.getKernel() != null) {
+            System.out.println("kernel: " + fleet.getKernel());
+        }
+        System.out.println(report);
+        CollisionDetector detector = fleet.getCollisionDetector();
+        if (detector != null) {
+            System.out.printf("collisions: candidate pairs/tick %.1f, hits/tick %.1f%n",
+                    (double) detector.getTotalCandidatePairs() / (warmup + ticks),
+                    (double) detector.getTotalHits() / (warmup + ticks));
+        }
+        for (int i = 0; i < Math.min(print, fleet.size()); i++) {
+            System.out.printf("robot %d: x=%.3f y=%.3f direction=%.4f target=(%d, %d)%n", i,
+                    fleet.getX(i), fleet.getY(i), fleet.getDirection(i), fleet.getTargetX(i), fleet.getTargetY(i));
+        }
+
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package simulation;
+
+import model.ParallelFleetStepper;
+import model.RobotFleet;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Класс SimulationClock - управляемые часы модели: пауза, пошаговый режим и ускорение времени.
+ * Используется как такт {@link SimulationLoop}: при каждом такте цикла модель продвигается
+ * на столько базовых шагов длительностью duration, сколько задаёт коэффициент ускорения.
+ * <p>
+ * Несколько базовых шагов выполняются через {@link RobotFleet#fastForward(long, double)},
+ * который заменяет шаги с неизменным решением о повороте одним шагом по дуге,
+ * поэтому при большом ускорении траектории остаются теми же, а стоимость такта растёт медленнее ускорения.
+ */
+public class SimulationClock implements Runnable {
+    private final RobotFleet fleet;
+    private final double duration;
+    private final ParallelFleetStepper stepper;
+
+    private volatile boolean paused;
+    private volatile double timeScale = 1;
+    private final AtomicLong requestedSteps = new AtomicLong();
+
+    private double carry;
+    private volatile long simulatedSteps;
+
+    /**
+     * Создает часы для флота с последовательным шагом.
+     *
+     * @param fleet    флот роботов
+     * @param duration длительность базового шага
+     */
+    public SimulationClock(RobotFleet fleet, double duration) {
+        this(fleet, duration, null);
+    }
+
+    /**
+     * Создает часы для флота.
+     *
+     * @param fleet    флот роботов
+     * @param duration длительность базового шага
+     * @param stepper  параллельный шаг или null для последовательного шага
+     */
+    public SimulationClock(RobotFleet fleet, double duration, ParallelFleetStepper stepper) {
+        this.fleet = fleet;
+        this.duration = duration;
+        this.stepper = stepper;
+    }
+
+    /**
+     * Приостанавливает модель. Пока часы на паузе, модель продвигается только вызовами {@link #step()}.
+     */
+    public void pause() {
+        paused = true;
+    }
+
+    /**
+     * Возобновляет ход модели.
+     */
+    public void resume() {
+        paused = false;
+    }
+
+    /**
+     * Проверяет, стоят ли часы на паузе.
+     *
+     * @return true, если часы на паузе
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Запрашивает один базовый шаг модели. Шаг выполняется на ближайшем такте, если часы на паузе.
+     */
+    public void step() {
+        requestedSteps.incrementAndGet();
+    }
+
+    /**
+     * Устанавливает коэффициент ускорения времени: сколько базовых шагов выполняется за один такт.
+     * Дробные значения накапливаются между тактами.
+     *
+     * @param timeScale коэффициент ускорения
+     * @throws IllegalArgumentException если коэффициент не положителен
+     */
+    public void setTimeScale(double timeScale) {
+        if (!(timeScale > 0)) {
+            throw new IllegalArgumentException("time scale must be positive");
+        }
+
+        this.timeScale = timeScale;
+    }
+
+    /**
+     * Возвращает коэффициент ускорения времени.
+     *
+     * @return коэффициент ускорения
+     */
+    public double getTimeScale() {
+        return timeScale;
+    }
+
+    /**
+     * Возвращает модельное время, прошедшее с создания часов.
+     *
+     * @return модельное время в единицах длительности шага
+     */
+    public double getSimulatedTime() {
+        return simulatedSteps * duration;
+    }
+
+    /**
+     * Выполняет один такт часов.
+     */
+    @Override
+    public void run() {
+        long steps;
+
+        if (paused) {
+            steps = requestedSteps.getAndSet(0);
+        } else {
+            requestedSteps.set(0);
+            carry += timeScale;
+            steps = (long) carry;
+            carry -= steps;
+        }
+
+        if (steps == 0) {
+            return;
+        }
+
+        if (steps == 1) {
+            if (stepper == null) {
+                fleet.step(duration);
+            } else {
+                stepper.step(fleet, duration);
+            }
+        } else {
+            if (stepper == null) {
+                fleet.fastForward(steps, duration);
+            } else {
+                stepper.fastForward(fleet, steps, duration);
+            }
+        }
+
+        simulatedSteps += steps;
+    }
+}
@@ -0,0 +1,204 @@
+package simulation;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Класс SimulationLoop - часы модели с фиксированным шагом.
+ * Отдельный поток накапливает прошедшее реальное время и выполняет такт модели каждый раз,
+ * когда накоплен полный период такта, поэтому модель всегда продвигается одинаковыми шагами
+ * независимо от того, как часто и как долго выполняется отрисовка.
+ * <p>
+ * Если поток отстал (например, такт выполнялся дольше своего периода), пропущенные такты
+ * догоняются подряд, но не более заданного числа за один проход цикла. Такты, выполненные
+ * с опозданием, и такты, отброшенные из-за ограничения, учитываются в счётчиках.
+ * Отдельно, со своим периодом, вызывается обработчик кадра (например, запрос перерисовки).
+ */
+public class SimulationLoop {
+    private final String name;
+    private final long tickPeriodNanos;
+    private final int maxTicksPerFrame;
+    private final Runnable tick;
+
+    private long framePeriodNanos;
+    private Runnable frame;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    private volatile long ticks;
+    private volatile long lateTicks;
+    private volatile long droppedTicks;
+    private volatile long frames;
+
+    /**
+     * Создает цикл модели. Цикл не запускается до вызова {@link #start()}.
+     *
+     * @param name             имя потока цикла
+     * @param tickPeriodNanos  период такта модели в наносекундах
+     * @param maxTicksPerFrame наибольшее число тактов, выполняемых подряд при догоне
+     * @param tick             такт модели
+     * @throws IllegalArgumentException если период или ограничение догона не положительны
+     */
+    public SimulationLoop(String name, long tickPeriodNanos, int maxTicksPerFrame, Runnable tick) {
+        if (tickPeriodNanos <= 0 || maxTicksPerFrame <= 0) {
+            throw new IllegalArgumentException("tick period and catch-up limit must be positive");
+        }
+
+        this.name = name;
+        this.tickPeriodNanos = tickPeriodNanos;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+        this.tick = tick;
+    }
+
+    /**
+     * Устанавливает обработчик кадра, который вызывается из потока цикла с заданным периодом.
+     * Должен вызываться до {@link #start()}.
+     *
+     * @param framePeriodNanos период кадра в наносекундах
+     * @param frame            обработчик кадра
+     */
+    public void setFrameCallback(long framePeriodNanos, Runnable frame) {
+        if (framePeriodNanos <= 0) {
+            throw new IllegalArgumentException("frame period must be positive");
+        }
+
+        this.framePeriodNanos = framePeriodNanos;
+        this.frame = frame;
+    }
+
+    /**
+     * Запускает поток цикла. Повторный вызов для работающего цикла ничего не делает.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        thread = new Thread(this::run, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Останавливает поток цикла и дожидается его завершения.
+     */
+    public synchronized void stop() {
+        running = false;
+
+        if (thread == null) {
+            return;
+        }
+
+        LockSupport.unpark(thread);
+        if (thread != Thread.currentThread()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        thread = null;
+    }
+
+    /**
+     * Проверяет, работает ли цикл.
+     *
+     * @return true, если поток цикла запущен
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Возвращает период такта модели.
+     *
+     * @return период такта в наносекундах
+     */
+    public long getTickPeriodNanos() {
+        return tickPeriodNanos;
+    }
+
+    /**
+     * Возвращает число выполненных тактов.
+     *
+     * @return число тактов
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Возвращает число тактов, выполненных при догоне, то есть позже своего времени
+     * больше чем на период такта.
+     *
+     * @return число опоздавших тактов
+     */
+    public long getLateTicks() {
+        return lateTicks;
+    }
+
+    /**
+     * Возвращает число тактов, которые были отброшены из-за ограничения догона.
+     *
+     * @return число отброшенных тактов
+     */
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    /**
+     * Возвращает число вызовов обработчика кадра.
+     *
+     * @return число кадров
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    private void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        long nextFrame = previous;
+
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += now - previous;
+            previous = now;
+
+            int executed = 0;
+            while (accumulator >= tickPeriodNanos && executed < maxTicksPerFrame) {
+                if (accumulator >= 2 * tickPeriodNanos) {
+                    lateTicks++;
+                }
+                tick.run();
+                accumulator -= tickPeriodNanos;
+                executed++;
+                ticks++;
+            }
+
+            if (accumulator >= tickPeriodNanos) {
+                long dropped = accumulator / tickPeriodNanos;
+                droppedTicks += dropped;
+                accumulator -= dropped * tickPeriodNanos;
+            }
+
+            long wakeUp = previous + tickPeriodNanos - accumulator;
+
+            if (frame != null) {
+                now = System.nanoTime();
+                if (now >= nextFrame) {
+                    frame.run();
+                    frames++;
+                    nextFrame = Math.max(nextFrame + framePeriodNanos, now);
+                }
+                wakeUp = Math.min(wakeUp, nextFrame);
+            }
+
+            long sleep = wakeUp - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package simulation;
+
+/**
+ * Класс SimulationReport - результат прогона модели без отрисовки.
+ * Содержит число роботов и тактов, затраченное время и производные показатели пропускной способности.
+ */
+public class SimulationReport {
+    private final int robots;
+    private final long ticks;
+    private final long elapsedNanos;
+
+    /**
+     * Создает отчёт о прогоне.
+     *
+     * @param robots       число роботов в прогоне
+     * @param ticks        число выполненных тактов
+     * @param elapsedNanos затраченное время в наносекундах
+     */
+    public SimulationReport(int robots, long ticks, long elapsedNanos) {
+        this.robots = robots;
+        this.ticks = ticks;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Возвращает число роботов в прогоне.
+     *
+     * @return число роботов
+     */
+    public int getRobots() {
+        return robots;
+    }
+
+    /**
+     * Возвращает число выполненных тактов.
+     *
+     * @return число тактов
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Возвращает время, затраченное на все такты.
+     *
+     * @return затраченное время в наносекундах
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Возвращает число тактов в секунду.
+     *
+     * @return тактов в секунду
+     */
+    public double getTicksPerSecond() {
+        return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Возвращает среднее время одного такта.
+     *
+     * @return наносекунд на такт
+     */
+    public double getNanosPerTick() {
+        return ticks == 0 ? 0 : (double) elapsedNanos / ticks;
+    }
+
+    /**
+     * Возвращает среднее время продвижения одного робота на один такт.
+     *
+     * @return наносекунд на робота за такт
+     */
+    public double getNanosPerRobotTick() {
+        return robots == 0 ? 0 : getNanosPerTick() / robots;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("robots: %d, ticks: %d, elapsed: %.3f ms, ticks/sec: %.1f, ns/tick: %.1f, ns/robot-tick: %.2f",
+                robots, ticks, elapsedNanos / 1e6, getTicksPerSecond(), getNanosPerTick(), getNanosPerRobotTick());
+    }
+}